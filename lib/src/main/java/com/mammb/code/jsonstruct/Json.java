@@ -16,11 +16,38 @@
 package com.mammb.code.jsonstruct;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import com.mammb.code.jsonstruct.convert.Converts;
+import com.mammb.code.jsonstruct.convert.StringifyBuilder;
+import com.mammb.code.jsonstruct.lang.ByteBufferOutputStream;
 import com.mammb.code.jsonstruct.lang.CharBufferReader;
 import com.mammb.code.jsonstruct.lang.CharReader;
+import com.mammb.code.jsonstruct.lang.GatheringOutputStream;
 import com.mammb.code.jsonstruct.lang.StringReader;
+import com.mammb.code.jsonstruct.lang.Utf8Reader;
+import com.mammb.code.jsonstruct.parser.JsonArray;
+import com.mammb.code.jsonstruct.parser.JsonObject;
+import com.mammb.code.jsonstruct.parser.JsonPushParser;
+import com.mammb.code.jsonstruct.parser.JsonString;
+import com.mammb.code.jsonstruct.parser.JsonValue;
+import com.mammb.code.jsonstruct.parser.PullParser;
 
 /**
  * Json.
@@ -36,6 +63,26 @@ public interface Json<T> {
     T from(CharReader reader);
 
 
+    /**
+     * Construct the given class instance from the current value of the parser.
+     * If the parser has not started yet, the next value is read.
+     * After the construction, the parser points the end of the value.
+     * The default implementation reads the value with {@link PullParser#getValue()},
+     * and constructs the instance from its json by {@link #from(CharReader)}.
+     * The generated classes bind the parser events directly.
+     * @param parser PullParser
+     * @return the class instance, {@code null} if no value
+     */
+    default T from(PullParser parser) {
+        if (!parser.seekValue()) {
+            return null;
+        }
+        StringBuilder buf = new StringBuilder(256);
+        write(parser.getValue(), StringifyBuilder.of(buf, Converts.of()));
+        return from(new StringReader(buf.toString()));
+    }
+
+
     /**
      * Construct the given class instance from json.
      * @param reader Reader
@@ -56,6 +103,395 @@ public interface Json<T> {
     }
 
 
+    /**
+     * Construct the given class instance from UTF-8 encoded json.
+     * @param bytes the UTF-8 encoded bytes of json
+     * @return the class instance
+     */
+    default T fromJson(byte[] bytes) {
+        return from(Utf8Reader.of(bytes));
+    }
+
+
+    /**
+     * Construct the given class instance from UTF-8 encoded json.
+     * @param bytes the UTF-8 encoded bytes of json
+     * @param off the offset of the json in the bytes
+     * @param len the length of the json in the bytes
+     * @return the class instance
+     */
+    default T fromJson(byte[] bytes, int off, int len) {
+        return from(Utf8Reader.of(bytes, off, len));
+    }
+
+
+    /**
+     * Construct the given class instance from UTF-8 encoded json.
+     * @param in the UTF-8 encoded stream of json
+     * @return the class instance
+     */
+    default T fromJson(InputStream in) {
+        return from(Utf8Reader.of(in));
+    }
+
+
+    /**
+     * Construct the given class instance from UTF-8 encoded json.
+     * The bytes between the position and the limit of the buffer are read,
+     * the position of the buffer is not changed.
+     * @param buffer the UTF-8 encoded byte buffer of json
+     * @return the class instance
+     */
+    default T fromJson(ByteBuffer buffer) {
+        return from(Utf8Reader.of(buffer));
+    }
+
+
+    /**
+     * Construct the given class instance from UTF-8 encoded json file.
+     * Large files are mapped into memory rather than read through a buffer.
+     * @param path the path of json file
+     * @return the class instance
+     */
+    default T fromJson(Path path) {
+        try (Utf8Reader reader = Utf8Reader.of(path)) {
+            return from(reader);
+        }
+    }
+
+
+    /**
+     * Create a push parser that constructs the class instances from UTF-8 encoded json fed in chunks.
+     * Each time a root value is completed, the instance is passed to the consumer.
+     * {@code null} values are skipped.
+     * @param consumer the consumer of class instances
+     * @return a new push parser
+     */
+    default JsonPushParser pushParser(Consumer<? super T> consumer) {
+        return JsonPushParser.of(parser -> {
+            T t = from(parser);
+            if (t != null) {
+                consumer.accept(t);
+            }
+        });
+    }
+
+
+    /**
+     * Create a push parser that constructs the class instances from the elements of root json arrays
+     * in UTF-8 encoded json fed in chunks.
+     * Each time an element is completed, the instance is passed to the consumer,
+     * and only the element being read is held in memory.
+     * {@code null} elements are skipped.
+     * @param consumer the consumer of class instances
+     * @return a new push parser
+     */
+    default JsonPushParser arrayPushParser(Consumer<? super T> consumer) {
+        return JsonPushParser.ofElements(parser -> {
+            T t = from(parser);
+            if (t != null) {
+                consumer.accept(t);
+            }
+        });
+    }
+
+
+    /**
+     * Create a processor that decodes chunks of UTF-8 encoded json into class instances.
+     * A chunk is requested from the upstream only when the subscriber has demand
+     * and the instances decoded so far have been delivered.
+     * The processor accepts only one subscriber.
+     * @return a new processor
+     */
+    default Flow.Processor<ByteBuffer, T> decoder() {
+        return new JsonFlowDecoder<>(this, false);
+    }
+
+
+    /**
+     * Create a processor that decodes chunks of UTF-8 encoded json into class instances
+     * from the elements of root json arrays.
+     * Each element is published as it is completed, and only the element being read is held in memory.
+     * The processor accepts only one subscriber.
+     * @return a new processor
+     */
+    default Flow.Processor<ByteBuffer, T> arrayDecoder() {
+        return new JsonFlowDecoder<>(this, true);
+    }
+
+
+    /**
+     * Create a publisher that encodes the class instances into UTF-8 encoded JSON Lines.
+     * Each instance is published as a chunk terminated by a line feed,
+     * and is encoded only when the subscriber has demand.
+     * @param objects the class instances
+     * @return a new publisher
+     */
+    default Flow.Publisher<ByteBuffer> publisher(Iterable<? extends T> objects) {
+        return new JsonFlowPublisher<>(this, objects);
+    }
+
+
+    /**
+     * Create a write-behind sink that writes the class instances to the channel as UTF-8 encoded JSON Lines.
+     * Instances are accepted on any thread, and are serialized and written in batches by a background worker.
+     * @param channel the channel to be written, not closed by the sink
+     * @return a new sink
+     */
+    default JsonSink<T> sink(WritableByteChannel channel) {
+        return JsonSink.of(this, channel, JsonSink.DEFAULT_CAPACITY);
+    }
+
+
+    /**
+     * Create a write-behind sink that writes the class instances to the channel as UTF-8 encoded JSON Lines.
+     * Instances are accepted on any thread, and are serialized and written in batches by a background worker.
+     * @param channel the channel to be written, not closed by the sink
+     * @param capacity the max number of instances waiting to be written, the accepting blocks when it is full
+     * @return a new sink
+     */
+    default JsonSink<T> sink(WritableByteChannel channel, int capacity) {
+        return JsonSink.of(this, channel, capacity);
+    }
+
+
+    /**
+     * Construct the class instances from JSON Lines, one instance per line.
+     * The instances are read lazily, blank lines and {@code null} lines are skipped.
+     * The stream should be closed to close the reader.
+     * @param reader Reader
+     * @return the stream of class instances
+     * @throws JsonStructException at the terminal operation, if a line is malformed
+     */
+    default Stream<T> lines(Reader reader) {
+        return JsonLines.stream(this, CharBufferReader.of(reader), null);
+    }
+
+
+    /**
+     * Construct the class instances from JSON Lines, one instance per line.
+     * Malformed lines are reported to the error handler and skipped.
+     * The stream should be closed to close the reader.
+     * @param reader Reader
+     * @param onError the error handler of malformed lines
+     * @return the stream of class instances
+     */
+    default Stream<T> lines(Reader reader, Consumer<? super JsonStructException> onError) {
+        return JsonLines.stream(this, CharBufferReader.of(reader), onError);
+    }
+
+
+    /**
+     * Construct the class instances from UTF-8 encoded JSON Lines file, one instance per line.
+     * The instances are read lazily, blank lines and {@code null} lines are skipped.
+     * The stream should be closed to close the file.
+     * @param path the path of JSON Lines file
+     * @return the stream of class instances
+     * @throws JsonStructException at the terminal operation, if a line is malformed
+     */
+    default Stream<T> lines(Path path) {
+        return JsonLines.stream(this, Utf8Reader.of(path), null);
+    }
+
+
+    /**
+     * Construct the class instances from UTF-8 encoded JSON Lines file, one instance per line.
+     * Malformed lines are reported to the error handler and skipped.
+     * The stream should be closed to close the file.
+     * @param path the path of JSON Lines file
+     * @param onError the error handler of malformed lines
+     * @return the stream of class instances
+     */
+    default Stream<T> lines(Path path, Consumer<? super JsonStructException> onError) {
+        return JsonLines.stream(this, Utf8Reader.of(path), onError);
+    }
+
+
+    /**
+     * Construct the class instances from UTF-8 encoded JSON Lines in parallel.
+     * The input is split into chunks at line feeds, and each chunk is read by a worker of the stream.
+     * The returned stream is parallel and ordered, use {@link Stream#unordered()} if the order is not needed.
+     * The bytes between the position and the limit of the buffer are read,
+     * the position of the buffer is not changed.
+     * @param buffer the UTF-8 encoded byte buffer of JSON Lines
+     * @return the parallel stream of class instances
+     * @throws JsonStructException at the terminal operation, if a line is malformed
+     */
+    default Stream<T> parallelLines(ByteBuffer buffer) {
+        return JsonLinesSpliterator.stream(this, buffer, null);
+    }
+
+
+    /**
+     * Construct the class instances from UTF-8 encoded JSON Lines in parallel.
+     * Malformed lines are reported to the error handler and skipped,
+     * the error handler may be called concurrently.
+     * @param buffer the UTF-8 encoded byte buffer of JSON Lines
+     * @param onError the error handler of malformed lines
+     * @return the parallel stream of class instances
+     */
+    default Stream<T> parallelLines(ByteBuffer buffer, Consumer<? super JsonStructException> onError) {
+        return JsonLinesSpliterator.stream(this, buffer, onError);
+    }
+
+
+    /**
+     * Construct the class instances from UTF-8 encoded JSON Lines file in parallel.
+     * The file is mapped into memory and split into chunks at line feeds,
+     * and each chunk is read by a worker of the stream.
+     * The returned stream is parallel and ordered, use {@link Stream#unordered()} if the order is not needed.
+     * @param path the path of JSON Lines file
+     * @return the parallel stream of class instances
+     * @throws JsonStructException at the terminal operation, if a line is malformed
+     */
+    default Stream<T> parallelLines(Path path) {
+        return JsonLinesSpliterator.stream(this, path, null);
+    }
+
+
+    /**
+     * Construct the class instances from UTF-8 encoded JSON Lines file in parallel.
+     * Malformed lines are reported to the error handler and skipped,
+     * the error handler may be called concurrently.
+     * @param path the path of JSON Lines file
+     * @param onError the error handler of malformed lines
+     * @return the parallel stream of class instances
+     */
+    default Stream<T> parallelLines(Path path, Consumer<? super JsonStructException> onError) {
+        return JsonLinesSpliterator.stream(this, path, onError);
+    }
+
+
+    /**
+     * Construct the class instances from the elements of a root json array.
+     * The elements are read lazily in constant memory, {@code null} elements are skipped.
+     * The stream should be closed to close the reader.
+     * @param reader Reader
+     * @return the stream of class instances
+     */
+    default Stream<T> streamArray(Reader reader) {
+        return JsonArrayElements.stream(this, CharBufferReader.of(reader));
+    }
+
+
+    /**
+     * Construct the class instances from the elements of a root json array in UTF-8 encoded json.
+     * The elements are read lazily in constant memory, {@code null} elements are skipped.
+     * The stream should be closed to close the stream within.
+     * @param in the UTF-8 encoded stream of json
+     * @return the stream of class instances
+     */
+    default Stream<T> streamArray(InputStream in) {
+        return JsonArrayElements.stream(this, Utf8Reader.of(in));
+    }
+
+
+    /**
+     * Construct the class instances from the elements of a root json array in UTF-8 encoded json file.
+     * The elements are read lazily, {@code null} elements are skipped.
+     * The stream should be closed to close the file.
+     * @param path the path of json file
+     * @return the stream of class instances
+     */
+    default Stream<T> streamArray(Path path) {
+        return JsonArrayElements.stream(this, Utf8Reader.of(path));
+    }
+
+
+    /**
+     * Construct the class instances from the elements of a root json array in parallel.
+     * The elements are split into ranges at separating commas, and each range is read by a worker of the stream.
+     * The returned stream is parallel and ordered, use {@link Stream#unordered()} if the order is not needed.
+     * The bytes between the position and the limit of the buffer are read,
+     * the position of the buffer is not changed.
+     * @param buffer the UTF-8 encoded byte buffer of json
+     * @return the parallel stream of class instances
+     */
+    default Stream<T> parallelArray(ByteBuffer buffer) {
+        return JsonArraySpliterator.stream(this, buffer);
+    }
+
+
+    /**
+     * Construct the class instances from the elements of a root json array in UTF-8 encoded json file in parallel.
+     * The file is mapped into memory, the elements are split into ranges at separating commas,
+     * and each range is read by a worker of the stream.
+     * The returned stream is parallel and ordered, use {@link Stream#unordered()} if the order is not needed.
+     * @param path the path of json file
+     * @return the parallel stream of class instances
+     */
+    default Stream<T> parallelArray(Path path) {
+        return JsonArraySpliterator.stream(this, path);
+    }
+
+
+    /**
+     * Construct the class instances from the json files.
+     * The files are read concurrently, at most {@code 2 * availableProcessors} (at least 4) at a time.
+     * @param paths the paths of json files
+     * @return the class instances, in the order of the paths
+     * @throws JsonStructException if a file fails, the files not yet read are cancelled
+     */
+    default List<T> readAll(Collection<? extends Path> paths) {
+        return JsonFiles.readAll(this, paths, JsonFiles.DEFAULT_CONCURRENCY);
+    }
+
+
+    /**
+     * Construct the class instances from the json files.
+     * The files are read concurrently, at most the given number at a time.
+     * @param paths the paths of json files
+     * @param concurrency the max number of files read at a time
+     * @return the class instances, in the order of the paths
+     * @throws JsonStructException if a file fails, the files not yet read are cancelled
+     */
+    default List<T> readAll(Collection<? extends Path> paths, int concurrency) {
+        return JsonFiles.readAll(this, paths, concurrency);
+    }
+
+
+    /**
+     * Construct the class instances from the json files,
+     * and pass each instance to the consumer as soon as the file is read.
+     * The consumer is called on the calling thread, in the order of completion.
+     * @param paths the paths of json files
+     * @param concurrency the max number of files read at a time
+     * @param consumer the consumer of the path and the class instance
+     * @throws JsonStructException if a file fails, the files not yet read are cancelled
+     */
+    default void readEach(Collection<? extends Path> paths, int concurrency,
+            BiConsumer<? super Path, ? super T> consumer) {
+        JsonFiles.readEach(this, paths, concurrency, consumer);
+    }
+
+
+    /**
+     * Construct the class instances from the json files in the directory.
+     * The files are read concurrently, at most {@code 2 * availableProcessors} (at least 4) at a time.
+     * @param dir the directory
+     * @param glob the glob pattern of file names, e.g. {@code *.json}
+     * @return the class instances, in the order of the paths of files
+     * @throws JsonStructException if a file fails, the files not yet read are cancelled
+     */
+    default List<T> readDirectory(Path dir, String glob) {
+        return JsonFiles.readAll(this, JsonFiles.list(dir, glob), JsonFiles.DEFAULT_CONCURRENCY);
+    }
+
+
+    /**
+     * Construct the class instances from the json files in the directory.
+     * The files are read concurrently, at most the given number at a time.
+     * @param dir the directory
+     * @param glob the glob pattern of file names, e.g. {@code *.json}
+     * @param concurrency the max number of files read at a time
+     * @return the class instances, in the order of the paths of files
+     * @throws JsonStructException if a file fails, the files not yet read are cancelled
+     */
+    default List<T> readDirectory(Path dir, String glob, int concurrency) {
+        return JsonFiles.readAll(this, JsonFiles.list(dir, glob), concurrency);
+    }
+
+
     /**
      * Construct the given class instance from json.
      * @param cs the char sequence of json
@@ -80,6 +516,18 @@ public interface Json<T> {
     }
 
 
+    /**
+     * Construct the given class instance from UTF-8 encoded json file.
+     * @param path the path of json file
+     * @param clazz the type of model
+     * @param <T> type of class
+     * @return the class instance
+     */
+    static <T> T objectify(Path path, Class<T> clazz) {
+        return of(clazz).fromJson(path);
+    }
+
+
     /**
      * Writes the object content tree to a {@link Appendable}.
      * @param object the object content tree to be serialized.
@@ -89,6 +537,119 @@ public interface Json<T> {
     void toJson(T object, Appendable writer) throws IOException;
 
 
+    /**
+     * Writes the object content tree to a {@link StringifyBuilder}.
+     * The builder can be reused to write multiple objects to the same destination.
+     * The default implementation writes the json serialized by {@link #toJson(Object, Appendable)}.
+     * @param object the object content tree to be serialized.
+     * @param sb the builder created by {@link #builder(Appendable)}
+     */
+    default void toJson(T object, StringifyBuilder sb) {
+        try {
+            StringBuilder buf = new StringBuilder(256);
+            toJson(object, buf);
+            sb.append(buf);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+
+    /**
+     * Create a new {@link StringifyBuilder} that writes to the {@link Appendable}.
+     * Unless the appendable is a {@link StringBuilder}, the chars are buffered in the builder,
+     * and written on {@link StringifyBuilder#flush()}.
+     * @param writer destination of json data
+     * @return a new StringifyBuilder
+     */
+    default StringifyBuilder builder(Appendable writer) {
+        return StringifyBuilder.ofBuffered(writer, Converts.of());
+    }
+
+
+    /**
+     * Create a new {@link StringifyBuilder} that writes UTF-8 encoded bytes to the {@link OutputStream}.
+     * The bytes are buffered in the builder, and written on {@link StringifyBuilder#flush()}.
+     * @param out destination of json data, or {@code null} to keep the bytes in the builder
+     * @return a new StringifyBuilder
+     */
+    default StringifyBuilder builder(OutputStream out) {
+        return StringifyBuilder.of(out, Converts.of());
+    }
+
+
+    /**
+     * Writes the object content tree to the output stream in UTF-8, encoded on the fly.
+     * The output stream is neither flushed nor closed.
+     * @param object the object content tree to be serialized.
+     * @param out destination of json data where serialized from java content tree
+     * @throws IOException if io error occurred
+     */
+    default void toJson(T object, OutputStream out) throws IOException {
+        StringifyBuilder sb = builder(out);
+        toJson(object, sb);
+        sb.flush();
+    }
+
+
+    /**
+     * Writes the object content tree to the byte buffer in UTF-8, encoded on the fly.
+     * The bytes are written from the position of the buffer, and the position is advanced.
+     * @param object the object content tree to be serialized.
+     * @param buffer destination of json data where serialized from java content tree
+     * @throws java.nio.BufferOverflowException if the remaining of the buffer is not enough
+     */
+    default void toJson(T object, ByteBuffer buffer) {
+        StringifyBuilder sb = builder(ByteBufferOutputStream.of(buffer));
+        toJson(object, sb);
+        sb.flush();
+    }
+
+
+    /**
+     * Writes the object content tree to the channel in UTF-8.
+     * The bytes are buffered in pooled direct byte buffers, and are written with gathering writes.
+     * The channel is not closed.
+     * @param object the object content tree to be serialized.
+     * @param channel destination of json data where serialized from java content tree
+     * @throws IOException if io error occurred
+     */
+    default void toJson(T object, GatheringByteChannel channel) throws IOException {
+        try (GatheringOutputStream out = GatheringOutputStream.of(channel)) {
+            StringifyBuilder sb = builder(out);
+            toJson(object, sb);
+            sb.flush();
+        }
+    }
+
+
+    /**
+     * Writes the object content tree to the file in UTF-8.
+     * The file is created, or truncated if exists.
+     * @param object the object content tree to be serialized.
+     * @param path destination of json data where serialized from java content tree
+     * @throws IOException if io error occurred
+     */
+    default void toJson(T object, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            toJson(object, channel);
+        }
+    }
+
+
+    /**
+     * Serializes the object content tree to UTF-8 encoded json.
+     * @param object the object content tree to be serialized.
+     * @return the UTF-8 encoded bytes serialized from java content tree
+     */
+    default byte[] toBytes(T object) {
+        StringifyBuilder sb = builder((OutputStream) null);
+        toJson(object, sb);
+        return sb.toBytes();
+    }
+
+
     /**
      * Serializes the object content tree to a Json string.
      * @param object the object content tree to be serialized.
@@ -105,6 +666,106 @@ public interface Json<T> {
     }
 
 
+    /**
+     * Writes the elements of the stream as a json array to a {@link Appendable}.
+     * The elements are written one by one through a reused builder, without collecting them.
+     * If the appendable is {@link java.io.Flushable}, it is flushed periodically.
+     * @param stream the stream of elements
+     * @param writer destination of json data
+     * @throws IOException if io error occurred
+     */
+    default void toJsonArray(Stream<? extends T> stream, Appendable writer) throws IOException {
+        JsonStreamWriter.array(this, stream.iterator(), writer);
+    }
+
+
+    /**
+     * Writes the elements of the iterator as a json array to a {@link Appendable}.
+     * The elements are written one by one through a reused builder, without collecting them.
+     * If the appendable is {@link java.io.Flushable}, it is flushed periodically.
+     * @param iterator the iterator of elements
+     * @param writer destination of json data
+     * @throws IOException if io error occurred
+     */
+    default void toJsonArray(Iterator<? extends T> iterator, Appendable writer) throws IOException {
+        JsonStreamWriter.array(this, iterator, writer);
+    }
+
+
+    /**
+     * Writes the elements of the stream as a UTF-8 encoded json array to the output stream.
+     * The output stream is flushed periodically, and is not closed.
+     * @param stream the stream of elements
+     * @param out destination of json data
+     * @throws IOException if io error occurred
+     */
+    default void toJsonArray(Stream<? extends T> stream, OutputStream out) throws IOException {
+        JsonStreamWriter.array(this, stream.iterator(), out);
+    }
+
+
+    /**
+     * Writes the elements of the iterator as a UTF-8 encoded json array to the output stream.
+     * The output stream is flushed periodically, and is not closed.
+     * @param iterator the iterator of elements
+     * @param out destination of json data
+     * @throws IOException if io error occurred
+     */
+    default void toJsonArray(Iterator<? extends T> iterator, OutputStream out) throws IOException {
+        JsonStreamWriter.array(this, iterator, out);
+    }
+
+
+    /**
+     * Writes the elements of the stream as JSON Lines to a {@link Appendable}, one element per line.
+     * The elements are written one by one through a reused builder, without collecting them.
+     * If the appendable is {@link java.io.Flushable}, it is flushed periodically.
+     * @param stream the stream of elements
+     * @param writer destination of json data
+     * @throws IOException if io error occurred
+     */
+    default void toJsonLines(Stream<? extends T> stream, Appendable writer) throws IOException {
+        JsonStreamWriter.lines(this, stream.iterator(), writer);
+    }
+
+
+    /**
+     * Writes the elements of the iterator as JSON Lines to a {@link Appendable}, one element per line.
+     * The elements are written one by one through a reused builder, without collecting them.
+     * If the appendable is {@link java.io.Flushable}, it is flushed periodically.
+     * @param iterator the iterator of elements
+     * @param writer destination of json data
+     * @throws IOException if io error occurred
+     */
+    default void toJsonLines(Iterator<? extends T> iterator, Appendable writer) throws IOException {
+        JsonStreamWriter.lines(this, iterator, writer);
+    }
+
+
+    /**
+     * Writes the elements of the stream as UTF-8 encoded JSON Lines to the output stream, one element per line.
+     * The output stream is flushed periodically, and is not closed.
+     * @param stream the stream of elements
+     * @param out destination of json data
+     * @throws IOException if io error occurred
+     */
+    default void toJsonLines(Stream<? extends T> stream, OutputStream out) throws IOException {
+        JsonStreamWriter.lines(this, stream.iterator(), out);
+    }
+
+
+    /**
+     * Writes the elements of the iterator as UTF-8 encoded JSON Lines to the output stream, one element per line.
+     * The output stream is flushed periodically, and is not closed.
+     * @param iterator the iterator of elements
+     * @param out destination of json data
+     * @throws IOException if io error occurred
+     */
+    default void toJsonLines(Iterator<? extends T> iterator, OutputStream out) throws IOException {
+        JsonStreamWriter.lines(this, iterator, out);
+    }
+
+
     /**
      * Serializes the object content tree to a Json string.
      * @param object the object content tree to be serialized.
@@ -142,4 +803,37 @@ public interface Json<T> {
         return Json_.of(clazz);
     }
 
+
+    /**
+     * Write the json value as json.
+     * @param value the json value
+     * @param sb the builder
+     */
+    private static void write(JsonValue value, StringifyBuilder sb) {
+        if (value instanceof JsonObject obj) {
+            char sep = '{';
+            for (Map.Entry<String, JsonValue> e : obj.entrySet()) {
+                sb.append(sep).appendObj(e.getKey()).append(':');
+                write(e.getValue(), sb);
+                sep = ',';
+            }
+            if (sep == '{') sb.append('{');
+            sb.append('}');
+        } else if (value instanceof JsonArray array) {
+            char sep = '[';
+            for (JsonValue v : array) {
+                sb.append(sep);
+                write(v, sb);
+                sep = ',';
+            }
+            if (sep == '[') sb.append('[');
+            sb.append(']');
+        } else if (value instanceof JsonString str) {
+            sb.appendObj(str.toString());
+        } else {
+            // numbers and literals
+            sb.append(value.toString());
+        }
+    }
+
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct;
+
+import com.mammb.code.jsonstruct.lang.CharReader;
+import com.mammb.code.jsonstruct.parser.PullParser;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The iterator of the elements of a root json array.
+ * Each element is bound to an instance as it is read, the array is never held in memory.
+ * {@code null} elements are skipped.
+ * @param <T> the type of instance
+ * @author Naotsugu Kobayashi
+ */
+class JsonArrayElements<T> implements Iterator<T> {
+
+    /** The json. */
+    private final Json<T> json;
+
+    /** The parser. */
+    private final PullParser parser;
+
+    /** The next instance. */
+    private T next;
+
+    /** Whether the end of the array has been reached. */
+    private boolean end;
+
+
+    /**
+     * Constructor.
+     * @param json the json
+     * @param parser the parser
+     */
+    JsonArrayElements(Json<T> json, PullParser parser) {
+        this.json = json;
+        this.parser = parser;
+    }
+
+
+    /**
+     * Create a new stream of the elements of the root json array.
+     * The stream should be closed to close the reader.
+     * @param json the json
+     * @param reader the reader
+     * @param <T> the type of instance
+     * @return a new stream
+     */
+    static <T> Stream<T> stream(Json<T> json, CharReader reader) {
+        PullParser parser = PullParser.of(reader);
+        JsonArrayElements<T> elements = new JsonArrayElements<>(json, parser);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(elements, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(parser::close);
+    }
+
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !end) {
+            next = advance();
+        }
+        return next != null;
+    }
+
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T ret = next;
+        next = null;
+        return ret;
+    }
+
+
+    /**
+     * Read elements until an instance is bound.
+     * @return the instance, {@code null} if no more elements
+     */
+    private T advance() {
+        if (parser.currentEvent() == null) {
+            if (!parser.hasNext()) {
+                end = true;
+                return null;
+            }
+            if (parser.next() != PullParser.Event.START_ARRAY) {
+                throw new JsonStructException("The root value is not an array. [{}]", parser.currentEvent());
+            }
+        }
+        while (parser.next() != PullParser.Event.END_ARRAY) {
+            T t = json.from(parser);
+            if (t != null) {
+                return t;
+            }
+        }
+        end = true;
+        return null;
+    }
+
+}
@@ -0,0 +1,416 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct;
+
+import com.mammb.code.jsonstruct.lang.CharArray;
+import com.mammb.code.jsonstruct.lang.CharReader;
+import com.mammb.code.jsonstruct.lang.Utf8Reader;
+import com.mammb.code.jsonstruct.parser.PullParser;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The spliterator of the elements of a root json array in UTF-8 encoded json.
+ * The range of the elements is split at a separating comma after the midpoint.
+ * The comma is found by scanning from the start of the range, counting brackets and skipping strings,
+ * and each range is read with its own reader and parser.
+ * @param <T> the type of instance
+ * @author Naotsugu Kobayashi
+ */
+class JsonArraySpliterator<T> implements Spliterator<T> {
+
+    /** The min size of the range to be split. */
+    private static final int MIN_CHUNK_SIZE = 1 << 16;
+
+    /** The max size of a mapped region. */
+    private static final long MAX_REGION_SIZE = Integer.MAX_VALUE;
+
+    /** The size of a mapped region, when a file is mapped in multiple regions. */
+    private static final long REGION_SIZE = 1L << 30;
+
+    /** The json. */
+    private final Json<T> json;
+
+    /** The UTF-8 encoded json. */
+    private final ByteBuffer buffer;
+
+    /** The start position of the range, just after {@code [} or {@code ,}. */
+    private int pos;
+
+    /** The end position of the range, at {@code ]} or {@code ,}. */
+    private final int end;
+
+    /** The elements being read, {@code null} if not started. */
+    private JsonArrayElements<T> elements;
+
+
+    /**
+     * Constructor.
+     * @param json the json
+     * @param buffer the UTF-8 encoded json
+     * @param pos the start position of the range
+     * @param end the end position of the range
+     */
+    private JsonArraySpliterator(Json<T> json, ByteBuffer buffer, int pos, int end) {
+        this.json = json;
+        this.buffer = buffer;
+        this.pos = pos;
+        this.end = end;
+    }
+
+
+    /**
+     * Create a new parallel stream of the elements of a root json array.
+     * The bytes between the position and the limit of the buffer are read,
+     * the position of the buffer is not changed.
+     * @param json the json
+     * @param buffer the UTF-8 encoded json
+     * @param <T> the type of instance
+     * @return a new parallel stream
+     */
+    static <T> Stream<T> stream(Json<T> json, ByteBuffer buffer) {
+        int open = openBracket(buffer, buffer.position(), buffer.limit());
+        int close = closeBracket(buffer, open, buffer.limit());
+        return StreamSupport.stream(new JsonArraySpliterator<>(json, buffer, open + 1, close), true);
+    }
+
+
+    /**
+     * Create a new parallel stream of the elements of a root json array in UTF-8 encoded json file.
+     * The file is mapped into memory. If the file is larger than 2GB, the file is scanned once
+     * to map in multiple regions split at separating commas.
+     * @param json the json
+     * @param path the path of json file
+     * @param <T> the type of instance
+     * @return a new parallel stream
+     */
+    static <T> Stream<T> stream(Json<T> json, Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping remains valid after the channel is closed
+            long size = channel.size();
+            if (size <= MAX_REGION_SIZE) {
+                return stream(json, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            }
+
+            ByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, 1024));
+            long start = openBracket(head, 0, head.limit()) + 1;
+            long tailPos = Math.max(0, size - 1024);
+            ByteBuffer tail = channel.map(FileChannel.MapMode.READ_ONLY, tailPos, size - tailPos);
+            long close = tailPos + closeBracket(tail, -1, tail.limit());
+
+            Stream<T> stream = null;
+            Scanner scanner = new Scanner();
+            long scanned = start;
+            while (close - start > MAX_REGION_SIZE) {
+                long separator = -1;
+                while (separator < 0 && scanned < close) {
+                    long len = Math.min(close - scanned, REGION_SIZE);
+                    ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, scanned, len);
+                    int i = scanner.scan(window, 0, (int) len, (int) Math.max(0, start + REGION_SIZE - scanned));
+                    separator = (i < 0) ? -1 : scanned + i;
+                    scanned += (i < 0) ? len : i + 1;
+                }
+                if (separator < 0 || separator - start > MAX_REGION_SIZE) {
+                    throw new JsonStructException("Too large element. index:{}", start);
+                }
+                stream = concat(stream, region(json, channel, start, separator));
+                start = separator + 1;
+            }
+            return concat(stream, region(json, channel, start, close));
+
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (elements == null) {
+            ByteBuffer range = buffer.duplicate().limit(end).position(pos);
+            elements = new JsonArrayElements<>(json, PullParser.of(new ArrayReader(Utf8Reader.of(range))));
+            pos = end;
+        }
+        if (elements.hasNext()) {
+            action.accept(elements.next());
+            return true;
+        }
+        return false;
+    }
+
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (elements != null || end - pos < MIN_CHUNK_SIZE) {
+            return null;
+        }
+        int mid = pos + ((end - pos) >>> 1);
+        int separator = new Scanner().scan(buffer, pos, end, mid - pos);
+        if (separator < 0) {
+            return null;
+        }
+        Spliterator<T> prefix = new JsonArraySpliterator<>(json, buffer, pos, separator);
+        pos = separator + 1;
+        return prefix;
+    }
+
+
+    @Override
+    public long estimateSize() {
+        // the number of bytes, as the number of elements is unknown
+        return (elements == null) ? end - pos : 0;
+    }
+
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+
+    /**
+     * Create a new parallel stream of the elements in a region of a file.
+     * @param json the json
+     * @param channel the file channel
+     * @param start the start position of the region, just after {@code [} or {@code ,}
+     * @param end the end position of the region, at {@code ]} or {@code ,}
+     * @param <T> the type of instance
+     * @return a new parallel stream
+     * @throws IOException if io error occurred
+     */
+    private static <T> Stream<T> region(Json<T> json, FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        return StreamSupport.stream(new JsonArraySpliterator<>(json, region, 0, region.limit()), true);
+    }
+
+
+    /**
+     * Gets the index of the opening bracket of the root array.
+     * @param buffer the buffer
+     * @param from the start index
+     * @param to the end index, exclusive
+     * @return the index of the opening bracket
+     */
+    private static int openBracket(ByteBuffer buffer, int from, int to) {
+        int i = from;
+        // skip the byte order mark
+        if (to - i >= 3 && buffer.get(i) == (byte) 0xEF &&
+            buffer.get(i + 1) == (byte) 0xBB && buffer.get(i + 2) == (byte) 0xBF) {
+            i += 3;
+        }
+        for (; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b == '[') return i;
+            if (!isWhitespace(b)) break;
+        }
+        throw new JsonStructException("The root value is not an array. index:{}", i);
+    }
+
+
+    /**
+     * Gets the index of the closing bracket of the root array.
+     * @param buffer the buffer
+     * @param open the index of the opening bracket
+     * @param to the end index, exclusive
+     * @return the index of the closing bracket
+     */
+    private static int closeBracket(ByteBuffer buffer, int open, int to) {
+        for (int i = to - 1; i > open; i--) {
+            byte b = buffer.get(i);
+            if (b == ']') return i;
+            if (!isWhitespace(b)) break;
+        }
+        throw new JsonStructException("Unterminated array.");
+    }
+
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+
+    private static <T> Stream<T> concat(Stream<T> s1, Stream<T> s2) {
+        return (s1 == null) ? s2 : Stream.concat(s1, s2);
+    }
+
+
+    /**
+     * The scanner of the separating commas of array elements.
+     * The scanner starts at the start of an element, and the state is kept across scans.
+     */
+    private static class Scanner {
+
+        /** The depth of nesting in the element. */
+        private int depth;
+
+        /** Whether in a string. */
+        private boolean inString;
+
+        /** Whether the next char is escaped. */
+        private boolean escaped;
+
+
+        /**
+         * Scan the separating comma.
+         * @param buffer the buffer
+         * @param from the start index
+         * @param to the end index, exclusive
+         * @param threshold the min offset from the start index of the separating comma to be found
+         * @return the index of the separating comma, {@code -1} if not found
+         */
+        int scan(ByteBuffer buffer, int from, int to, int threshold) {
+            for (int i = from; i < to; i++) {
+                byte b = buffer.get(i);
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (b == '\\') {
+                        escaped = true;
+                    } else if (b == '"') {
+                        inString = false;
+                    }
+                } else if (b == '"') {
+                    inString = true;
+                } else if (b == '{' || b == '[') {
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    depth--;
+                } else if (b == ',' && depth == 0 && i - from >= threshold) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+
+    /**
+     * The reader of a range of array elements, enclosed with brackets.
+     */
+    private static class ArrayReader implements CharReader {
+
+        /** The reader of the range. */
+        private final CharReader in;
+
+        /** The state, {@code 0} before {@code [}, {@code 1} in the range, {@code 2} after {@code ]}. */
+        private int state;
+
+        /** The previous character. */
+        private int latestRead;
+
+        /** need stepBack?. */
+        private boolean stepBack;
+
+
+        /**
+         * Constructor.
+         * @param in the reader of the range
+         */
+        ArrayReader(CharReader in) {
+            this.in = in;
+        }
+
+
+        @Override
+        public int read() {
+            if (stepBack) {
+                stepBack = false;
+                return latestRead;
+            }
+            int ch;
+            if (state == 0) {
+                state = 1;
+                ch = '[';
+            } else if (state == 1) {
+                ch = in.read();
+                if (ch == -1) {
+                    state = 2;
+                    ch = ']';
+                }
+            } else {
+                ch = -1;
+            }
+            return latestRead = ch;
+        }
+
+
+        @Override
+        public int readNextChar() {
+            int ch;
+            do {
+                ch = read();
+            } while (ch == ' ' || ch == '\t' || ch == '\r' || ch == '\n');
+            return ch;
+        }
+
+
+        @Override
+        public int length(Predicate<Character> until) {
+            return (state == 1 && !stepBack) ? in.length(until) : 0;
+        }
+
+
+        @Override
+        public int scanString(CharArray ca) {
+            return (state == 1 && !stepBack) ? in.scanString(ca) : CharReader.super.scanString(ca);
+        }
+
+
+        @Override
+        public int read(char[] chars, int off, int len) {
+            int n = 0;
+            for (; n < len; n++) {
+                int ch = read();
+                if (ch == -1) break;
+                chars[off + n] = (char) ch;
+            }
+            return (n == 0 && len > 0) ? -1 : n;
+        }
+
+
+        @Override
+        public void skip(int n) {
+            for (int i = 0; i < n; i++) read();
+        }
+
+
+        @Override
+        public void stepBack() {
+            stepBack = true;
+        }
+
+
+        @Override
+        public int getPosition() {
+            return in.getPosition();
+        }
+
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+
+/**
+ * The bulk loader of json files.
+ * The files are read concurrently on a bounded pool of daemon threads, one task per file,
+ * and each file is read with {@link Json#fromJson(Path)}, which picks the input by the size of the file.
+ * @author Naotsugu Kobayashi
+ */
+class JsonFiles {
+
+    /** The default number of files read at a time, reading small files is mostly waiting for IO. */
+    static final int DEFAULT_CONCURRENCY = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+
+    /**
+     * Constructor.
+     */
+    private JsonFiles() {
+    }
+
+
+    /**
+     * Construct the class instances from the json files.
+     * @param json the json
+     * @param paths the paths of json files
+     * @param concurrency the max number of files read at a time
+     * @param <T> the type of instance
+     * @return the class instances, in the order of the paths
+     */
+    static <T> List<T> readAll(Json<T> json, Collection<? extends Path> paths, int concurrency) {
+        @SuppressWarnings("unchecked")
+        T[] results = (T[]) new Object[paths.size()];
+        List<Path> list = new ArrayList<>(paths);
+        read(json, list, concurrency, (i, t) -> results[i] = t);
+        return Arrays.asList(results);
+    }
+
+
+    /**
+     * Construct the class instances from the json files,
+     * and pass each instance to the consumer as soon as the file is read.
+     * The consumer is called on the calling thread, in the order of completion.
+     * @param json the json
+     * @param paths the paths of json files
+     * @param concurrency the max number of files read at a time
+     * @param consumer the consumer of the path and the class instance
+     * @param <T> the type of instance
+     */
+    static <T> void readEach(Json<T> json, Collection<? extends Path> paths, int concurrency,
+            BiConsumer<? super Path, ? super T> consumer) {
+        List<Path> list = new ArrayList<>(paths);
+        read(json, list, concurrency, (i, t) -> consumer.accept(list.get(i), t));
+    }
+
+
+    /**
+     * Gets the regular files in the directory matching the glob pattern, sorted by path.
+     * @param dir the directory
+     * @param glob the glob pattern of file names, e.g. {@code *.json}
+     * @return the paths of files
+     */
+    static List<Path> list(Path dir, String glob) {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, glob)) {
+            for (Path path : stream) {
+                if (Files.isRegularFile(path)) {
+                    paths.add(path);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        paths.sort(null);
+        return paths;
+    }
+
+
+    /**
+     * Read the json files, and pass each instance with the index of the path as soon as the file is read.
+     * If a file fails, the files not yet read are cancelled and the failure is thrown.
+     * @param json the json
+     * @param paths the paths of json files
+     * @param concurrency the max number of files read at a time
+     * @param consumer the consumer of the index and the class instance, called on the calling thread
+     * @param <T> the type of instance
+     */
+    private static <T> void read(Json<T> json, List<Path> paths, int concurrency, IndexedConsumer<T> consumer) {
+
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Non-positive concurrency. " + concurrency);
+        }
+
+        int threads = Math.min(concurrency, paths.size());
+        if (threads <= 1) {
+            for (int i = 0; i < paths.size(); i++) {
+                consumer.accept(i, read(json, paths.get(i)));
+            }
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "json-files");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletionService<Loaded<T>> service = new ExecutorCompletionService<>(executor);
+            for (int i = 0; i < paths.size(); i++) {
+                int index = i;
+                service.submit(() -> new Loaded<>(index, read(json, paths.get(index))));
+            }
+            for (int i = 0; i < paths.size(); i++) {
+                Loaded<T> loaded = service.take().get();
+                consumer.accept(loaded.index, loaded.value);
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    /**
+     * Read the json file.
+     * @param json the json
+     * @param path the path of json file
+     * @param <T> the type of instance
+     * @return the class instance
+     */
+    private static <T> T read(Json<T> json, Path path) {
+        try {
+            return json.fromJson(path);
+        } catch (RuntimeException e) {
+            throw new JsonStructException("Failed to read. path:" + path, e);
+        }
+    }
+
+
+    /**
+     * The consumer of the index of the path and the class instance.
+     * @param <T> the type of instance
+     */
+    private interface IndexedConsumer<T> {
+        void accept(int index, T value);
+    }
+
+
+    /**
+     * The class instance read from a file.
+     * @param index the index of the path
+     * @param value the class instance
+     * @param <T> the type of instance
+     */
+    private record Loaded<T>(int index, T value) { }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct;
+
+import com.mammb.code.jsonstruct.parser.JsonPushParser;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The processor that decodes chunks of UTF-8 encoded json into class instances.
+ * A chunk is requested from the upstream only when the downstream has demand
+ * and all the instances decoded so far have been delivered.
+ * Only one subscriber is accepted.
+ * @param <T> the type of instance
+ * @author Naotsugu Kobayashi
+ */
+class JsonFlowDecoder<T> implements Flow.Processor<ByteBuffer, T>, Flow.Subscription {
+
+    /** The push parser. */
+    private final JsonPushParser parser;
+
+    /** The decoded instances not yet delivered. */
+    private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+
+    /** The demand of the downstream. */
+    private final AtomicLong requested = new AtomicLong();
+
+    /** The work in progress counter of the drain loop. */
+    private final AtomicInteger wip = new AtomicInteger();
+
+    /** The upstream subscription. */
+    private volatile Flow.Subscription upstream;
+
+    /** The downstream subscriber. */
+    private volatile Flow.Subscriber<? super T> downstream;
+
+    /** Whether a chunk has been requested and not yet received. */
+    private volatile boolean pending;
+
+    /** Whether the upstream has been terminated. */
+    private volatile boolean done;
+
+    /** The error of the upstream or of the decoding. */
+    private volatile Throwable error;
+
+    /** Whether the downstream has been cancelled or terminated. */
+    private volatile boolean cancelled;
+
+
+    /**
+     * Constructor.
+     * @param json the json
+     * @param elements whether to decode the elements of root arrays
+     */
+    JsonFlowDecoder(Json<T> json, boolean elements) {
+        this.parser = elements ? json.arrayPushParser(queue::offer) : json.pushParser(queue::offer);
+    }
+
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        synchronized (this) {
+            if (downstream != null) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override public void request(long n) { }
+                    @Override public void cancel() { }
+                });
+                subscriber.onError(new IllegalStateException("Only one subscriber is accepted."));
+                return;
+            }
+            downstream = subscriber;
+        }
+        subscriber.onSubscribe(this);
+        drain();
+    }
+
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        drain();
+    }
+
+
+    @Override
+    public void onNext(ByteBuffer item) {
+        pending = false;
+        if (done) {
+            return;
+        }
+        try {
+            parser.feed(item);
+        } catch (RuntimeException e) {
+            upstream.cancel();
+            onError(e);
+            return;
+        }
+        drain();
+    }
+
+
+    @Override
+    public void onError(Throwable throwable) {
+        if (done) {
+            return;
+        }
+        error = throwable;
+        done = true;
+        drain();
+    }
+
+
+    @Override
+    public void onComplete() {
+        if (done) {
+            return;
+        }
+        try {
+            parser.end();
+        } catch (RuntimeException e) {
+            error = e;
+        }
+        done = true;
+        drain();
+    }
+
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            Flow.Subscription s = upstream;
+            if (s != null) s.cancel();
+            queue.clear();
+            error = new IllegalArgumentException("Non-positive request. " + n);
+            done = true;
+            drain();
+            return;
+        }
+        requested.getAndAccumulate(n, (r, m) -> (r + m < 0) ? Long.MAX_VALUE : r + m);
+        drain();
+    }
+
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        Flow.Subscription s = upstream;
+        if (s != null) s.cancel();
+    }
+
+
+    /**
+     * Deliver the decoded instances as much as demanded, and request the next chunk if needed.
+     * Only one thread runs the loop at a time.
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        for (;;) {
+            Flow.Subscriber<? super T> s = downstream;
+            if (s != null) {
+                long r = requested.get();
+                long e = 0;
+                while (e != r && !cancelled) {
+                    T t = queue.poll();
+                    if (t == null) break;
+                    s.onNext(t);
+                    e++;
+                }
+                if (cancelled) {
+                    queue.clear();
+                    return;
+                }
+                if (done && queue.isEmpty()) {
+                    cancelled = true;
+                    Throwable ex = error;
+                    if (ex != null) {
+                        s.onError(ex);
+                    } else {
+                        s.onComplete();
+                    }
+                    return;
+                }
+                if (e != 0 && r != Long.MAX_VALUE) {
+                    r = requested.addAndGet(-e);
+                }
+                Flow.Subscription up = upstream;
+                if (r > 0 && up != null && !done && !pending && queue.isEmpty()) {
+                    pending = true;
+                    up.request(1);
+                }
+            }
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+    }
+
+}
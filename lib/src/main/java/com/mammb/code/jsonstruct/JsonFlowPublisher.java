@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct;
+
+import com.mammb.code.jsonstruct.convert.StringifyBuilder;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The publisher that encodes class instances into UTF-8 encoded JSON Lines.
+ * Each instance is published as a chunk, terminated by a line feed.
+ * An instance is encoded only when the subscriber has demand.
+ * Each subscriber iterates the instances from the start.
+ * @param <T> the type of instance
+ * @author Naotsugu Kobayashi
+ */
+class JsonFlowPublisher<T> implements Flow.Publisher<ByteBuffer> {
+
+    /** The json. */
+    private final Json<T> json;
+
+    /** The instances. */
+    private final Iterable<? extends T> objects;
+
+
+    /**
+     * Constructor.
+     * @param json the json
+     * @param objects the instances
+     */
+    JsonFlowPublisher(Json<T> json, Iterable<? extends T> objects) {
+        this.json = json;
+        this.objects = objects;
+    }
+
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        Iterator<? extends T> iterator;
+        try {
+            iterator = objects.iterator();
+        } catch (RuntimeException e) {
+            subscriber.onSubscribe(new Emitter<>(json, null, subscriber));
+            subscriber.onError(e);
+            return;
+        }
+        subscriber.onSubscribe(new Emitter<>(json, iterator, subscriber));
+    }
+
+
+    /**
+     * The subscription that encodes an instance for each demand.
+     * @param <T> the type of instance
+     */
+    private static class Emitter<T> implements Flow.Subscription {
+
+        /** The json. */
+        private final Json<T> json;
+
+        /** The iterator of the instances. */
+        private final Iterator<? extends T> iterator;
+
+        /** The subscriber. */
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+
+        /** The demand of the subscriber. */
+        private final AtomicLong requested = new AtomicLong();
+
+        /** The work in progress counter of the emit loop. */
+        private final AtomicInteger wip = new AtomicInteger();
+
+        /** The error of non-positive request. */
+        private volatile Throwable error;
+
+        /** Whether cancelled or terminated. */
+        private volatile boolean cancelled;
+
+
+        /**
+         * Constructor.
+         * @param json the json
+         * @param iterator the iterator of the instances, {@code null} if failed
+         * @param subscriber the subscriber
+         */
+        Emitter(Json<T> json, Iterator<? extends T> iterator, Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.json = json;
+            this.iterator = iterator;
+            this.subscriber = subscriber;
+            this.cancelled = (iterator == null);
+        }
+
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Non-positive request. " + n);
+            } else {
+                requested.getAndAccumulate(n, (r, m) -> (r + m < 0) ? Long.MAX_VALUE : r + m);
+            }
+            emit();
+        }
+
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+
+        /**
+         * Encode and publish the instances as much as demanded.
+         * Only one thread runs the loop at a time.
+         */
+        private void emit() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                long r = requested.get();
+                long e = 0;
+                while (!cancelled) {
+                    if (error != null) {
+                        cancelled = true;
+                        subscriber.onError(error);
+                        return;
+                    }
+                    ByteBuffer chunk;
+                    try {
+                        if (!iterator.hasNext()) {
+                            cancelled = true;
+                            subscriber.onComplete();
+                            return;
+                        }
+                        if (e == r) {
+                            break;
+                        }
+                        chunk = encode(iterator.next());
+                    } catch (RuntimeException ex) {
+                        cancelled = true;
+                        subscriber.onError(ex);
+                        return;
+                    }
+                    subscriber.onNext(chunk);
+                    e++;
+                }
+                if (cancelled) {
+                    return;
+                }
+                if (e != 0 && r != Long.MAX_VALUE) {
+                    requested.addAndGet(-e);
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+
+        /**
+         * Encode the instance.
+         * @param object the instance
+         * @return the UTF-8 encoded json, terminated by a line feed
+         */
+        private ByteBuffer encode(T object) {
+            StringifyBuilder sb = json.builder((OutputStream) null);
+            json.toJson(object, sb);
+            return ByteBuffer.wrap(sb.append('\n').toBytes());
+        }
+    }
+
+}
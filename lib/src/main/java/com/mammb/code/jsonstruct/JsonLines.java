@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct;
+
+import com.mammb.code.jsonstruct.lang.CharReader;
+import com.mammb.code.jsonstruct.lang.LineReader;
+import com.mammb.code.jsonstruct.parser.JsonParseException;
+import com.mammb.code.jsonstruct.parser.PullParser;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The iterator of JSON Lines.
+ * Each line is bound to an instance, the reader, the parser and the buffers are shared across lines.
+ * Blank lines and {@code null} lines are skipped.
+ * @param <T> the type of instance
+ * @author Naotsugu Kobayashi
+ */
+class JsonLines<T> implements Iterator<T> {
+
+    /** The json. */
+    private final Json<T> json;
+
+    /** The line reader. */
+    private final LineReader reader;
+
+    /** The parser. */
+    private final PullParser parser;
+
+    /** The error handler, {@code null} if not tolerant. */
+    private final Consumer<? super JsonStructException> onError;
+
+    /** The offset of the chunk of lines in the whole input, {@code -1} if not chunked. */
+    private final long offset;
+
+    /** The next instance. */
+    private T next;
+
+
+    /**
+     * Constructor.
+     * @param json the json
+     * @param reader the reader within
+     * @param onError the error handler, {@code null} if not tolerant
+     * @param offset the offset of the chunk of lines in the whole input, {@code -1} if not chunked
+     */
+    JsonLines(Json<T> json, CharReader reader, Consumer<? super JsonStructException> onError, long offset) {
+        this.json = json;
+        this.reader = LineReader.of(reader);
+        this.parser = PullParser.of(this.reader);
+        this.onError = onError;
+        this.offset = offset;
+    }
+
+
+    /**
+     * Create a new stream of JSON Lines.
+     * The stream should be closed to close the reader.
+     * @param json the json
+     * @param reader the reader
+     * @param onError the error handler, the malformed lines are reported and skipped.
+     *     If {@code null}, the first malformed line is thrown.
+     * @param <T> the type of instance
+     * @return a new stream
+     */
+    static <T> Stream<T> stream(Json<T> json, CharReader reader, Consumer<? super JsonStructException> onError) {
+        JsonLines<T> lines = new JsonLines<>(json, reader, onError, -1);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(lines, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(lines::close);
+    }
+
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = advance();
+        }
+        return next != null;
+    }
+
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T ret = next;
+        next = null;
+        return ret;
+    }
+
+
+    /**
+     * Read lines until an instance is bound.
+     * @return the instance, {@code null} if no more lines
+     */
+    private T advance() {
+        while (reader.nextLine()) {
+            parser.reset();
+            try {
+                if (!parser.hasNext()) {
+                    continue;
+                }
+                T t = json.from(parser);
+                if (parser.hasNext()) {
+                    throw new JsonParseException("Unexpected value after the end of line. index:{}", parser.getPosition());
+                }
+                if (t != null) {
+                    return t;
+                }
+            } catch (RuntimeException e) {
+                JsonStructException ex = new JsonStructException((offset < 0)
+                    ? "Malformed line. line:" + reader.getLineNumber()
+                    : "Malformed line. line:" + reader.getLineNumber() + " of the chunk at byte:" + offset, e);
+                if (onError == null) {
+                    throw ex;
+                }
+                onError.accept(ex);
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * Close the reader.
+     */
+    private void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct;
+
+import com.mammb.code.jsonstruct.lang.Utf8Reader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The spliterator of UTF-8 encoded JSON Lines.
+ * The input is split into chunks at the line feeds, and each chunk is read with its own reader and parser.
+ * A line feed byte never appears inside a multibyte UTF-8 sequence, so the chunks are split on bytes.
+ * @param <T> the type of instance
+ * @author Naotsugu Kobayashi
+ */
+class JsonLinesSpliterator<T> implements Spliterator<T> {
+
+    /** The min size of the chunk to be split. */
+    private static final int MIN_CHUNK_SIZE = 1 << 16;
+
+    /** The max size of a mapped region. */
+    private static final long MAX_REGION_SIZE = Integer.MAX_VALUE;
+
+    /** The json. */
+    private final Json<T> json;
+
+    /** The UTF-8 encoded JSON Lines. */
+    private final ByteBuffer buffer;
+
+    /** The error handler, {@code null} if not tolerant. */
+    private final Consumer<? super JsonStructException> onError;
+
+    /** The offset of the buffer in the whole input. */
+    private final long base;
+
+    /** The start position of the chunk in the buffer. */
+    private int pos;
+
+    /** The end position of the chunk in the buffer, exclusive. */
+    private final int end;
+
+    /** The lines being read, {@code null} if not started. */
+    private JsonLines<T> lines;
+
+
+    /**
+     * Constructor.
+     * @param json the json
+     * @param buffer the UTF-8 encoded JSON Lines
+     * @param onError the error handler, {@code null} if not tolerant
+     * @param base the offset of the buffer in the whole input
+     * @param pos the start position of the chunk in the buffer
+     * @param end the end position of the chunk in the buffer, exclusive
+     */
+    private JsonLinesSpliterator(Json<T> json, ByteBuffer buffer,
+            Consumer<? super JsonStructException> onError, long base, int pos, int end) {
+        this.json = json;
+        this.buffer = buffer;
+        this.onError = onError;
+        this.base = base;
+        this.pos = pos;
+        this.end = end;
+    }
+
+
+    /**
+     * Create a new parallel stream of JSON Lines.
+     * The bytes between the position and the limit of the buffer are read,
+     * the position of the buffer is not changed.
+     * @param json the json
+     * @param buffer the UTF-8 encoded JSON Lines
+     * @param onError the error handler, {@code null} if not tolerant
+     * @param <T> the type of instance
+     * @return a new parallel stream
+     */
+    static <T> Stream<T> stream(Json<T> json, ByteBuffer buffer, Consumer<? super JsonStructException> onError) {
+        return stream(json, buffer, onError, 0);
+    }
+
+
+    /**
+     * Create a new parallel stream of UTF-8 encoded JSON Lines file.
+     * The file is mapped into memory, in multiple regions if the file is larger than 2GB.
+     * @param json the json
+     * @param path the path of JSON Lines file
+     * @param onError the error handler, {@code null} if not tolerant
+     * @param <T> the type of instance
+     * @return a new parallel stream
+     */
+    static <T> Stream<T> stream(Json<T> json, Path path, Consumer<? super JsonStructException> onError) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping remains valid after the channel is closed
+            long size = channel.size();
+            Stream<T> stream = null;
+            for (long start = 0; start < size; ) {
+                long len = Math.min(size - start, MAX_REGION_SIZE);
+                ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start, len);
+                if (start + len < size) {
+                    int last = lastLineFeed(region);
+                    if (last < 0) {
+                        throw new JsonStructException("Too long line. index:{}", start);
+                    }
+                    region.limit(last + 1);
+                }
+                Stream<T> s = stream(json, region, onError, start);
+                stream = (stream == null) ? s : Stream.concat(stream, s);
+                start += region.limit();
+            }
+            return (stream == null) ? Stream.<T>empty().parallel() : stream;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (lines == null) {
+            ByteBuffer chunk = buffer.duplicate().limit(end).position(pos);
+            lines = new JsonLines<>(json, Utf8Reader.of(chunk), onError, base + pos);
+            pos = end;
+        }
+        if (lines.hasNext()) {
+            action.accept(lines.next());
+            return true;
+        }
+        return false;
+    }
+
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (lines != null || end - pos < MIN_CHUNK_SIZE) {
+            return null;
+        }
+        int mid = pos + ((end - pos) >>> 1);
+        for (int i = mid; i < end; i++) {
+            if (buffer.get(i) == '\n') {
+                Spliterator<T> prefix = new JsonLinesSpliterator<>(json, buffer, onError, base, pos, i + 1);
+                pos = i + 1;
+                return prefix;
+            }
+        }
+        return null;
+    }
+
+
+    @Override
+    public long estimateSize() {
+        // the number of bytes, as the number of lines is unknown
+        return (lines == null) ? end - pos : 0;
+    }
+
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+
+    /**
+     * Create a new parallel stream of the buffer.
+     * @param json the json
+     * @param buffer the UTF-8 encoded JSON Lines
+     * @param onError the error handler, {@code null} if not tolerant
+     * @param base the offset of the buffer in the whole input
+     * @param <T> the type of instance
+     * @return a new parallel stream
+     */
+    private static <T> Stream<T> stream(Json<T> json, ByteBuffer buffer,
+            Consumer<? super JsonStructException> onError, long base) {
+        return StreamSupport.stream(new JsonLinesSpliterator<>(
+            json, buffer, onError, base, buffer.position(), buffer.limit()), true);
+    }
+
+
+    /**
+     * Gets the index of the last line feed in the buffer.
+     * @param buffer the buffer
+     * @return the index of the last line feed, {@code -1} if not found
+     */
+    private static int lastLineFeed(ByteBuffer buffer) {
+        for (int i = buffer.limit() - 1; i >= buffer.position(); i--) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct;
+
+import com.mammb.code.jsonstruct.convert.StringifyBuilder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * The write-behind sink that writes class instances to a channel as UTF-8 encoded JSON Lines.
+ * Instances are accepted on any thread without locking, and a background worker serializes
+ * them in batches into a reused UTF-8 buffer, which is written to the channel when full and at the end of each batch.
+ * The number of instances waiting to be written is bounded, {@link #accept(Object)} blocks when it is full.
+ * <p>
+ * A failure of serialization or writing is thrown from the following {@link #accept(Object)},
+ * {@link #flush()} or {@link #close()}, and the batch in progress and the following instances are discarded.
+ * The channel is not closed by the sink.
+ * @param <T> the type of instance
+ * @author Naotsugu Kobayashi
+ */
+public class JsonSink<T> implements Consumer<T>, AutoCloseable {
+
+    /** The default number of instances waiting to be written. */
+    static final int DEFAULT_CAPACITY = 8192;
+
+    /** The max number of instances in a batch. */
+    private static final int BATCH_SIZE = 1024;
+
+    /** The json. */
+    private final Json<T> json;
+
+    /** The channel to be written. */
+    private final WritableByteChannel channel;
+
+    /** The instances waiting to be written. */
+    private final Queue<T> queue;
+
+    /** The permits of the bounded queue. */
+    private final Semaphore permits;
+
+    /** The number of instances accepted. */
+    private final AtomicLong accepted;
+
+    /** The number of instances written, guarded by this. */
+    private long written;
+
+    /** The background worker. */
+    private final Thread worker;
+
+    /** Whether the worker is waiting for instances. */
+    private volatile boolean parked;
+
+    /** Whether closed. */
+    private volatile boolean closed;
+
+    /** The first failure of serialization or writing. */
+    private volatile Throwable error;
+
+
+    /**
+     * Constructor.
+     * @param json the json
+     * @param channel the channel to be written
+     * @param capacity the max number of instances waiting to be written
+     */
+    private JsonSink(Json<T> json, WritableByteChannel channel, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Non-positive capacity. " + capacity);
+        }
+        this.json = json;
+        this.channel = channel;
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.permits = new Semaphore(capacity);
+        this.accepted = new AtomicLong();
+        this.worker = new Thread(this::run, "json-sink");
+        this.worker.setDaemon(true);
+    }
+
+
+    /**
+     * Create a new JsonSink, and start the background worker.
+     * @param json the json
+     * @param channel the channel to be written
+     * @param capacity the max number of instances waiting to be written
+     * @param <T> the type of instance
+     * @return a new JsonSink
+     */
+    static <T> JsonSink<T> of(Json<T> json, WritableByteChannel channel, int capacity) {
+        JsonSink<T> sink = new JsonSink<>(json, channel, capacity);
+        sink.worker.start();
+        return sink;
+    }
+
+
+    /**
+     * Accept the instance to be written.
+     * Blocks while the number of instances waiting to be written reaches the capacity.
+     * @param object the instance
+     * @throws IllegalStateException if the sink is closed
+     */
+    @Override
+    public void accept(T object) {
+        Objects.requireNonNull(object);
+        checkError();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        accepted.incrementAndGet();
+        if (closed) {
+            accepted.decrementAndGet();
+            permits.release();
+            throw new IllegalStateException("The sink is closed.");
+        }
+        queue.offer(object);
+        if (parked) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+
+    /**
+     * Wait until the instances accepted so far are written to the channel.
+     */
+    public void flush() {
+        long target = accepted.get();
+        LockSupport.unpark(worker);
+        try {
+            synchronized (this) {
+                while (written < target && worker.isAlive()) {
+                    wait(100);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        checkError();
+    }
+
+
+    /**
+     * Wait until the instances accepted so far are written to the channel, and stop the worker.
+     * Instances are no longer accepted.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(worker);
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        checkError();
+    }
+
+
+    private void checkError() {
+        Throwable e = error;
+        if (e != null) {
+            throw (e instanceof RuntimeException re) ? re : new RuntimeException(e);
+        }
+    }
+
+
+    /**
+     * The loop of the background worker.
+     * Serializes the instances in batches until closed and all accepted instances are written.
+     */
+    private void run() {
+
+        StringifyBuilder sb = json.builder(Channels.newOutputStream(channel));
+
+        for (;;) {
+            T object = queue.poll();
+            if (object == null) {
+                if (closed && accepted.get() == writtenCount()) {
+                    return;
+                }
+                parked = true;
+                if (queue.isEmpty()) {
+                    // park with timeout, as a closing may race with an accepting
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(closed ? 1 : 100));
+                }
+                parked = false;
+                continue;
+            }
+
+            int n = 0;
+            do {
+                if (error == null) {
+                    try {
+                        // the buffer of the builder is written to the channel when full
+                        json.toJson(object, sb);
+                        sb.append('\n');
+                    } catch (RuntimeException e) {
+                        error = e;
+                    }
+                }
+                n++;
+            } while (n < BATCH_SIZE && (object = queue.poll()) != null);
+
+            if (error == null) {
+                try {
+                    sb.flush();
+                } catch (RuntimeException e) {
+                    error = e;
+                }
+            }
+            permits.release(n);
+            synchronized (this) {
+                written += n;
+                notifyAll();
+            }
+        }
+    }
+
+
+    private synchronized long writtenCount() {
+        return written;
+    }
+
+}
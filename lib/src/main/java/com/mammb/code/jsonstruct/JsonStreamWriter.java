@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct;
+
+import com.mammb.code.jsonstruct.convert.StringifyBuilder;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * The writer of a sequence of class instances, as a json array or as JSON Lines.
+ * The instances are written one by one through a reused builder, without collecting them.
+ * @author Naotsugu Kobayashi
+ */
+class JsonStreamWriter {
+
+    /** The number of instances written between flushes. */
+    private static final int FLUSH_INTERVAL = 256;
+
+
+    /**
+     * Constructor.
+     */
+    private JsonStreamWriter() {
+    }
+
+
+    /**
+     * Writes the instances as a json array.
+     * @param json the json
+     * @param iterator the iterator of instances
+     * @param writer destination of json data
+     * @param <T> the type of instance
+     * @throws IOException if io error occurred
+     */
+    static <T> void array(Json<T> json, Iterator<? extends T> iterator, Appendable writer) throws IOException {
+        write(json, iterator, json.builder(writer), writer, true);
+    }
+
+
+    /**
+     * Writes the instances as a UTF-8 encoded json array.
+     * @param json the json
+     * @param iterator the iterator of instances
+     * @param out destination of json data
+     * @param <T> the type of instance
+     * @throws IOException if io error occurred
+     */
+    static <T> void array(Json<T> json, Iterator<? extends T> iterator, OutputStream out) throws IOException {
+        write(json, iterator, json.builder(out), out, true);
+    }
+
+
+    /**
+     * Writes the instances as JSON Lines, one instance per line.
+     * @param json the json
+     * @param iterator the iterator of instances
+     * @param writer destination of json data
+     * @param <T> the type of instance
+     * @throws IOException if io error occurred
+     */
+    static <T> void lines(Json<T> json, Iterator<? extends T> iterator, Appendable writer) throws IOException {
+        write(json, iterator, json.builder(writer), writer, false);
+    }
+
+
+    /**
+     * Writes the instances as UTF-8 encoded JSON Lines, one instance per line.
+     * @param json the json
+     * @param iterator the iterator of instances
+     * @param out destination of json data
+     * @param <T> the type of instance
+     * @throws IOException if io error occurred
+     */
+    static <T> void lines(Json<T> json, Iterator<? extends T> iterator, OutputStream out) throws IOException {
+        write(json, iterator, json.builder(out), out, false);
+    }
+
+
+    /**
+     * Writes the instances.
+     * @param json the json
+     * @param iterator the iterator of instances
+     * @param sb the builder
+     * @param target the destination of the builder, flushed if {@link Flushable}
+     * @param array {@code true} to write as a json array, {@code false} to write as JSON Lines
+     * @param <T> the type of instance
+     * @throws IOException if io error occurred
+     */
+    private static <T> void write(Json<T> json, Iterator<? extends T> iterator,
+            StringifyBuilder sb, Object target, boolean array) throws IOException {
+        if (array) sb.append('[');
+        for (int count = 0; iterator.hasNext(); count++) {
+            if (count > 0 && count % FLUSH_INTERVAL == 0) {
+                flush(sb, target);
+            }
+            if (array && count > 0) sb.append(',');
+            json.toJson(iterator.next(), sb);
+            if (!array) sb.append('\n');
+        }
+        if (array) sb.append(']');
+        flush(sb, target);
+    }
+
+
+    private static void flush(StringifyBuilder sb, Object target) throws IOException {
+        sb.flush();
+        if (target instanceof Flushable flushable) {
+            flushable.flush();
+        }
+    }
+
+}
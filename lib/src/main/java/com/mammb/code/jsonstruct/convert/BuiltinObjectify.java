@@ -113,17 +113,17 @@ public class BuiltinObjectify {
     public static Function<JsonValue, ?> to(Class<?> clazz) {
         return switch (clazz.getCanonicalName()) {
             case "java.lang.String"             -> v -> v.toString();
-            case "byte", "java.lang.Byte"       -> v -> Byte.parseByte(v.toString());
+            case "byte", "java.lang.Byte"       -> v -> (byte) asRanged(v, Byte.MIN_VALUE, Byte.MAX_VALUE);
             case "boolean", "java.lang.Boolean" -> v -> v.equals(JsonValue.TRUE);
-            case "double", "java.lang.Double"   -> v -> Double.parseDouble(v.toString());
-            case "float", "java.lang.Float"     -> v -> Float.parseFloat(v.toString());
+            case "double", "java.lang.Double"   -> v -> asDouble(v);
+            case "float", "java.lang.Float"     -> v -> asFloat(v);
             case "int", "java.lang.Integer"     -> v -> asNs(v).getInt();
             case "long", "java.lang.Long"       -> v -> asNs(v).getLong();
-            case "short", "java.lang.Short"     -> v -> Short.parseShort(v.toString());
+            case "short", "java.lang.Short"     -> v -> (short) asRanged(v, Short.MIN_VALUE, Short.MAX_VALUE);
             case "java.math.BigDecimal",
                  "java.lang.Number"             -> v -> asNs(v).getBigDecimal();
             case "java.math.BigInteger"         -> v -> asNs(v).getBigDecimal().toBigInteger();
-            case "java.util.OptionalDouble"     -> v -> v.equals(JsonValue.NULL) ? OptionalDouble.empty() : OptionalDouble.of(Double.parseDouble(v.toString()));
+            case "java.util.OptionalDouble"     -> v -> v.equals(JsonValue.NULL) ? OptionalDouble.empty() : OptionalDouble.of(asDouble(v));
             case "java.util.OptionalInt"        -> v -> v.equals(JsonValue.NULL) ? OptionalInt.empty() : OptionalInt.of(asNs(v).getInt());
             case "java.util.OptionalLong"       -> v -> v.equals(JsonValue.NULL) ? OptionalLong.empty() : OptionalLong.of(asNs(v).getLong());
 
@@ -169,6 +169,62 @@ public class BuiltinObjectify {
     }
 
 
+    /**
+     * Gets the integral number value within the range.
+     * A plain integer token is read as {@code long}, others are checked
+     * with the exact value so that the fraction and overflow are rejected.
+     * @param val the json value
+     * @param min the min value, inclusive
+     * @param max the max value, inclusive
+     * @return the number value
+     */
+    private static int asRanged(JsonValue val, int min, int max) {
+        NumberSource ns = asNs(val);
+        long num;
+        if (isPlainInteger(ns.chars())) {
+            num = ns.getLong();
+        } else {
+            try {
+                num = ns.getBigDecimal().intValueExact();
+            } catch (ArithmeticException e) {
+                throw new JsonStructException("Value out of range.[{}]", val);
+            }
+        }
+        if (num < min || num > max) {
+            throw new JsonStructException("Value out of range.[{}]", val);
+        }
+        return (int) num;
+    }
+
+
+    /**
+     * Gets whether the chars are a plain integer that fits in {@code long}.
+     * @param chars the chars of number
+     * @return {@code true} if the chars are a plain integer
+     */
+    private static boolean isPlainInteger(char[] chars) {
+        if (chars.length == 0 || chars.length > 18) {
+            return false;
+        }
+        for (int i = (chars[0] == '-') ? 1 : 0; i < chars.length; i++) {
+            if (chars[i] < '0' || chars[i] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private static double asDouble(JsonValue val) {
+        return (val instanceof NumberSource ns) ? ns.getDouble() : Double.parseDouble(val.toString());
+    }
+
+
+    private static float asFloat(JsonValue val) {
+        return (val instanceof NumberSource ns) ? ns.getFloat() : Float.parseFloat(val.toString());
+    }
+
+
     private static <T> T trying(ThrowsSupplier<T> supplier) {
         try {
             return supplier.get();
@@ -180,6 +180,16 @@ public class Converts {
     }
 
 
+    /**
+     * Gets whether the optional stringify mapping is added for the class.
+     * @param clazz the Class
+     * @return {@code true} if the optional stringify mapping is added
+     */
+    boolean hasStringify(Class<?> clazz) {
+        return !stringifyMap.isEmpty() && stringifyMap.containsKey(clazz);
+    }
+
+
     /**
      * Gets the predefined stringify classes fqcn.
      * @return the predefined stringify classes fqcn
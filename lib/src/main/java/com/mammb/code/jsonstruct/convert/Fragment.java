@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct.convert;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The constant fragment of json, pre-encoded in chars and in UTF-8.
+ * The generated classes hold the fragments in static fields, such as a property name
+ * fused with the preceding opening brace or separator, and each fragment is written with a bulk copy.
+ * @author Naotsugu Kobayashi
+ */
+public class Fragment {
+
+    /** The string of the fragment. */
+    private final String string;
+
+    /** The chars of the fragment. */
+    private final char[] chars;
+
+    /** The UTF-8 encoded bytes of the fragment. */
+    private final byte[] bytes;
+
+
+    /**
+     * Constructor.
+     * @param string the string of the fragment
+     */
+    private Fragment(String string) {
+        this.string = string;
+        this.chars = string.toCharArray();
+        this.bytes = string.getBytes(StandardCharsets.UTF_8);
+    }
+
+
+    /**
+     * Create a new Fragment.
+     * @param string the string of the fragment
+     * @return a new Fragment
+     */
+    public static Fragment of(String string) {
+        return new Fragment(string);
+    }
+
+
+    /**
+     * Gets the string of the fragment.
+     * @return the string
+     */
+    String string() {
+        return string;
+    }
+
+
+    /**
+     * Gets the chars of the fragment.
+     * @return the chars, not to be modified
+     */
+    char[] chars() {
+        return chars;
+    }
+
+
+    /**
+     * Gets the UTF-8 encoded bytes of the fragment.
+     * @return the bytes, not to be modified
+     */
+    byte[] bytes() {
+        return bytes;
+    }
+
+
+    @Override
+    public String toString() {
+        return string;
+    }
+
+}
@@ -16,18 +16,63 @@
 package com.mammb.code.jsonstruct.convert;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
 import java.util.function.Consumer;
 
 /**
  * StringifyBuilder.
+ * <p>
+ * The builder writes chars to an {@link Appendable}, or UTF-8 encoded bytes to an {@link OutputStream}.
+ * The chars are written through to the appendable, or, for a builder created by
+ * {@link #ofBuffered(Appendable, Converts)}, into an internal char buffer, which is written to the
+ * appendable in blocks when full and on {@link #flush()}. A {@link StringBuilder} is always written
+ * directly without the buffer.
+ * The bytes are encoded on the fly into an internal byte buffer,
+ * which is written to the stream when full and on {@link #flush()}.
  *
  * @author Naotsugu Kobayashi
  */
 public class StringifyBuilder {
 
-    /** Appendable. */
+    /** The size of byte buffer written to a stream. */
+    private static final int BUFFER_SIZE = 1 << 14;
+
+    /** The size of char buffer written to an appendable. */
+    private static final int CHAR_BUFFER_SIZE = 1 << 13;
+
+    /** The initial size of byte buffer kept in the builder. */
+    private static final int INITIAL_SIZE = 256;
+
+    /** The UTF-8 encoded null. */
+    private static final byte[] NULL = { 'n', 'u', 'l', 'l' };
+
+    /** The UTF-8 encoded true. */
+    private static final byte[] TRUE = { 't', 'r', 'u', 'e' };
+
+    /** The UTF-8 encoded false. */
+    private static final byte[] FALSE = { 'f', 'a', 'l', 's', 'e' };
+
+    /** Appendable, {@code null} if the builder writes bytes. */
     private final Appendable appendable;
 
+    /** The StringBuilder written directly, {@code null} if the appendable is not a StringBuilder. */
+    private final StringBuilder sb;
+
+    /** The char buffer, {@code null} if the builder writes bytes, writes through, or writes to a StringBuilder. */
+    private final char[] chars;
+
+    /** The UTF-8 destination, {@code null} if the bytes are kept in the builder. */
+    private final OutputStream out;
+
+    /** The byte buffer, {@code null} if the builder writes chars. */
+    private byte[] bytes;
+
+    /** The number of bytes or chars in the buffer. */
+    private int count;
+
     /** Converts. */
     private final Converts convert;
 
@@ -35,22 +80,52 @@ public class StringifyBuilder {
     /**
      * Constructor.
      * @param appendable Appendable
+     * @param buffered whether the chars are buffered before the appendable
+     * @param out the UTF-8 destination
+     * @param bytes the byte buffer
      * @param convert Converts
      */
-    private StringifyBuilder(Appendable appendable, Converts convert) {
+    private StringifyBuilder(Appendable appendable, boolean buffered, OutputStream out, byte[] bytes, Converts convert) {
         this.appendable = appendable;
+        this.sb = (appendable instanceof StringBuilder b) ? b : null;
+        this.chars = (buffered && appendable != null && sb == null) ? new char[CHAR_BUFFER_SIZE] : null;
+        this.out = out;
+        this.bytes = bytes;
         this.convert = convert;
     }
 
 
     /**
-     * Create a new StringifyBuilder.
+     * Create a new StringifyBuilder that writes the chars through to the appendable.
      * @param appendable Appendable
      * @param convert Converts
      * @return a new StringifyBuilder
      */
     public static StringifyBuilder of(Appendable appendable, Converts convert) {
-        return new StringifyBuilder(appendable, convert);
+        return new StringifyBuilder(appendable, false, null, null, convert);
+    }
+
+
+    /**
+     * Create a new StringifyBuilder that buffers the chars before the appendable.
+     * The buffered chars are written on {@link #flush()}, which must be called after the last append.
+     * @param appendable Appendable
+     * @param convert Converts
+     * @return a new StringifyBuilder
+     */
+    public static StringifyBuilder ofBuffered(Appendable appendable, Converts convert) {
+        return new StringifyBuilder(appendable, true, null, null, convert);
+    }
+
+
+    /**
+     * Create a new StringifyBuilder that writes UTF-8 encoded bytes.
+     * @param out the UTF-8 destination, or {@code null} to keep the bytes in the builder
+     * @param convert Converts
+     * @return a new StringifyBuilder
+     */
+    public static StringifyBuilder of(OutputStream out, Converts convert) {
+        return new StringifyBuilder(null, false, out, new byte[out == null ? INITIAL_SIZE : BUFFER_SIZE], convert);
     }
 
 
@@ -89,7 +164,7 @@ public class StringifyBuilder {
      * @return this builder
      */
     public StringifyBuilder append(CharSequence cs) {
-        appendOn(cs);
+        appendOn(cs, 0, cs.length());
         return this;
     }
 
@@ -105,23 +180,208 @@ public class StringifyBuilder {
     }
 
 
+    /**
+     * Append the constant fragment to this builder.
+     * @param fragment the fragment
+     * @return this builder
+     */
+    public StringifyBuilder append(Fragment fragment) {
+        if (sb != null) {
+            sb.append(fragment.chars());
+        } else if (bytes != null) {
+            appendOn(fragment.bytes());
+        } else {
+            appendOn(fragment.chars());
+        }
+        return this;
+    }
+
+
+    /**
+     * Append the int value to this builder, the digits are written without boxing.
+     * @param value the value to be appended
+     * @return this builder
+     */
+    public StringifyBuilder appendInt(int value) {
+        if (convert.hasStringify(Integer.class)) {
+            return appendObj(value);
+        }
+        return appendDigits(value);
+    }
+
+
+    /**
+     * Append the short value to this builder, the digits are written without boxing.
+     * @param value the value to be appended
+     * @return this builder
+     */
+    public StringifyBuilder appendShort(short value) {
+        if (convert.hasStringify(Short.class)) {
+            return appendObj(value);
+        }
+        return appendDigits(value);
+    }
+
+
+    /**
+     * Append the byte value to this builder, the digits are written without boxing.
+     * @param value the value to be appended
+     * @return this builder
+     */
+    public StringifyBuilder appendByte(byte value) {
+        if (convert.hasStringify(Byte.class)) {
+            return appendObj(value);
+        }
+        return appendDigits(value);
+    }
+
+
+    /**
+     * Append the long value to this builder, the digits are written without boxing.
+     * @param value the value to be appended
+     * @return this builder
+     */
+    public StringifyBuilder appendLong(long value) {
+        if (convert.hasStringify(Long.class)) {
+            return appendObj(value);
+        }
+        return appendDigits(value);
+    }
+
+
+    /**
+     * Append the double value to this builder, in the form of {@link Double#toString(double)}.
+     * @param value the value to be appended
+     * @return this builder
+     */
+    public StringifyBuilder appendDouble(double value) {
+        if (convert.hasStringify(Double.class)) {
+            return appendObj(value);
+        }
+        if (sb != null) {
+            sb.append(value);
+        } else {
+            String str = Double.toString(value);
+            appendOn(str, 0, str.length());
+        }
+        return this;
+    }
+
+
+    /**
+     * Append the float value to this builder, in the form of {@link Float#toString(float)}.
+     * @param value the value to be appended
+     * @return this builder
+     */
+    public StringifyBuilder appendFloat(float value) {
+        if (convert.hasStringify(Float.class)) {
+            return appendObj(value);
+        }
+        if (sb != null) {
+            sb.append(value);
+        } else {
+            String str = Float.toString(value);
+            appendOn(str, 0, str.length());
+        }
+        return this;
+    }
+
+
+    /**
+     * Append the boolean value to this builder.
+     * @param value the value to be appended
+     * @return this builder
+     */
+    public StringifyBuilder appendBoolean(boolean value) {
+        if (convert.hasStringify(Boolean.class)) {
+            return appendObj(value);
+        }
+        if (bytes != null) {
+            appendOn(value ? TRUE : FALSE);
+        } else if (value) {
+            appendOn("true", 0, 4);
+        } else {
+            appendOn("false", 0, 5);
+        }
+        return this;
+    }
+
+
+    /**
+     * Append the char value as string to this builder.
+     * @param value the value to be appended
+     * @return this builder
+     */
+    public StringifyBuilder appendChar(char value) {
+        if (convert.hasStringify(Character.class)) {
+            return appendObj(value);
+        }
+        appendOn('"');
+        if (value < ' ' || value == '"' || value == '\\' || Character.isSurrogate(value)) {
+            appendEscOn(String.valueOf(value));
+        } else {
+            appendOn(value);
+        }
+        appendOn('"');
+        return this;
+    }
+
+
     /**
      * Append null string to this builder.
      * @return this builder
      */
     public StringifyBuilder appendNull() {
-        appendOn("null");
+        if (bytes == null) {
+            appendOn("null", 0, 4);
+        } else {
+            appendOn(NULL);
+        }
         return this;
     }
 
 
+    /**
+     * Write the buffered chars to the appendable, or the buffered bytes to the stream.
+     * The appendable or the stream itself is not flushed.
+     * Nothing is done if the builder writes through, writes to a StringBuilder or keeps the bytes.
+     */
+    public void flush() {
+        if (chars != null && count > 0) {
+            flushChars(CharBuffer.wrap(chars, 0, count));
+            count = 0;
+        } else if (out != null && count > 0) {
+            try {
+                out.write(bytes, 0, count);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            count = 0;
+        }
+    }
+
+
+    /**
+     * Gets the UTF-8 encoded bytes kept in the builder.
+     * @return the copy of bytes
+     * @throws IllegalStateException if the builder does not keep the bytes
+     */
+    public byte[] toBytes() {
+        if (bytes == null || out != null) {
+            throw new IllegalStateException("The builder does not keep the bytes.");
+        }
+        return Arrays.copyOf(bytes, count);
+    }
+
+
     /**
      * Append the non string value to this builder.
      * @param object the value to be appended
      * @return this builder
      */
     StringifyBuilder appendNum(Object object) {
-        appendOn(String.valueOf(object));
+        String str = String.valueOf(object);
+        appendOn(str, 0, str.length());
         return this;
     }
 
@@ -132,7 +392,7 @@ public class StringifyBuilder {
      * @return this builder
      */
     StringifyBuilder appendNum(CharSequence cs) {
-        appendOn(cs);
+        appendOn(cs, 0, cs.length());
         return this;
     }
 
@@ -169,24 +429,223 @@ public class StringifyBuilder {
     }
 
 
-    private void appendOn(CharSequence cs) {
-        try {
-            appendable.append(cs);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    private void appendOn(CharSequence cs, int start, int end) {
+        if (sb != null) {
+            sb.append(cs, start, end);
+        } else if (bytes != null) {
+            encodeOn(cs, start, end);
+        } else if (chars == null) {
+            try {
+                appendable.append(cs, start, end);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        } else {
+            int len = end - start;
+            if (len > chars.length - count) {
+                flush();
+                if (len > chars.length) {
+                    flushChars(CharBuffer.wrap(cs, start, end));
+                    return;
+                }
+            }
+            if (cs instanceof String str) {
+                str.getChars(start, end, chars, count);
+                count += len;
+            } else {
+                for (int i = start; i < end; i++) {
+                    chars[count++] = cs.charAt(i);
+                }
+            }
         }
     }
 
 
     private void appendOn(char ch) {
+        if (sb != null) {
+            sb.append(ch);
+        } else if (bytes != null) {
+            if (ch < 0x80) {
+                ensure(1);
+                bytes[count++] = (byte) ch;
+            } else {
+                encodeOn(String.valueOf(ch), 0, 1);
+            }
+        } else if (chars == null) {
+            try {
+                appendable.append(ch);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        } else {
+            if (count == chars.length) {
+                flush();
+            }
+            chars[count++] = ch;
+        }
+    }
+
+
+    /**
+     * Write the chars to the appendable.
+     * @param cb the chars
+     */
+    private void flushChars(CharBuffer cb) {
         try {
-            appendable.append(ch);
+            if (appendable instanceof Writer writer && cb.hasArray()) {
+                writer.write(cb.array(), cb.arrayOffset() + cb.position(), cb.remaining());
+            } else {
+                appendable.append(cb);
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
 
+    private void appendOn(char[] c) {
+        if (chars == null) {
+            flushChars(CharBuffer.wrap(c));
+            return;
+        }
+        if (c.length > chars.length - count) {
+            flush();
+            if (c.length > chars.length) {
+                flushChars(CharBuffer.wrap(c));
+                return;
+            }
+        }
+        System.arraycopy(c, 0, chars, count, c.length);
+        count += c.length;
+    }
+
+
+    private void appendOn(byte[] b) {
+        ensure(b.length);
+        System.arraycopy(b, 0, bytes, count, b.length);
+        count += b.length;
+    }
+
+
+    /**
+     * Write the decimal digits of the value into the buffer.
+     * @param value the value
+     * @return this builder
+     */
+    private StringifyBuilder appendDigits(long value) {
+        if (sb != null) {
+            sb.append(value);
+            return this;
+        }
+        if (bytes == null && chars == null) {
+            String str = Long.toString(value);
+            appendOn(str, 0, str.length());
+            return this;
+        }
+        int len = digitsLength(value);
+        if (bytes != null) {
+            ensure(len);
+            count += len;
+            // the digits are written backward from the end, with negative values to cover Long.MIN_VALUE
+            int i = count;
+            long q = (value < 0) ? value : -value;
+            do {
+                bytes[--i] = (byte) ('0' - (q % 10));
+                q /= 10;
+            } while (q != 0);
+            if (value < 0) bytes[--i] = '-';
+        } else {
+            if (len > chars.length - count) {
+                flush();
+            }
+            count += len;
+            int i = count;
+            long q = (value < 0) ? value : -value;
+            do {
+                chars[--i] = (char) ('0' - (q % 10));
+                q /= 10;
+            } while (q != 0);
+            if (value < 0) chars[--i] = '-';
+        }
+        return this;
+    }
+
+
+    /**
+     * Gets the number of chars of the decimal value, including the sign.
+     * @param value the value
+     * @return the number of chars
+     */
+    private static int digitsLength(long value) {
+        int len = (value < 0) ? 2 : 1;
+        long q = (value < 0) ? value : -value;
+        long p = -10;
+        for (int i = 1; i < 19 && q <= p; i++) {
+            len++;
+            p *= 10;
+        }
+        return len;
+    }
+
+
+    /**
+     * Encode the chars into the byte buffer, malformed surrogates are replaced with {@code ?}.
+     */
+    private void encodeOn(CharSequence cs, int start, int end) {
+        int i = start;
+        while (i < end) {
+            // 3 bytes at most for each char, and a surrogate pair may run over the chunk by a char
+            int n = Math.min(end - i, 1024);
+            ensure(n * 3 + 1);
+            byte[] b = bytes;
+            int c = count;
+            int limit = i + n;
+            for (; i < limit; i++) {
+                char ch = cs.charAt(i);
+                if (ch < 0x80) {
+                    b[c++] = (byte) ch;
+                } else if (ch < 0x800) {
+                    b[c++] = (byte) (0xC0 | (ch >> 6));
+                    b[c++] = (byte) (0x80 | (ch & 0x3F));
+                } else if (Character.isSurrogate(ch)) {
+                    if (Character.isHighSurrogate(ch) && i + 1 < end && Character.isLowSurrogate(cs.charAt(i + 1))) {
+                        int cp = Character.toCodePoint(ch, cs.charAt(++i));
+                        b[c++] = (byte) (0xF0 | (cp >> 18));
+                        b[c++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                        b[c++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                        b[c++] = (byte) (0x80 | (cp & 0x3F));
+                    } else {
+                        b[c++] = '?';
+                    }
+                } else {
+                    b[c++] = (byte) (0xE0 | (ch >> 12));
+                    b[c++] = (byte) (0x80 | ((ch >> 6) & 0x3F));
+                    b[c++] = (byte) (0x80 | (ch & 0x3F));
+                }
+            }
+            count = c;
+        }
+    }
+
+
+    /**
+     * Ensure the room of the byte buffer, by writing the buffer to the stream or by growing the buffer.
+     * @param n the number of bytes to be appended
+     */
+    private void ensure(int n) {
+        if (n <= bytes.length - count) {
+            return;
+        }
+        if (out != null) {
+            flush();
+            if (n <= bytes.length) {
+                return;
+            }
+        }
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, count + n));
+    }
+
+
     private void appendEscOn(CharSequence cs) {
         int len = cs.length();
         for (int i = 0; i < len; i++) {
@@ -200,21 +659,21 @@ public class StringifyBuilder {
             }
 
             if (begin < end) {
-                appendOn(cs.subSequence(begin, end));
+                appendOn(cs, begin, end);
                 if (i == len)  break;
             }
 
             switch (c) {
                 case '"', '\\' -> { appendOn('\\'); appendOn(c); }
-                case '\b' -> appendOn("\\b");
-                case '\f' -> appendOn("\\f");
-                case '\n' -> appendOn("\\n");
-                case '\r' -> appendOn("\\r");
-                case '\t' -> appendOn("\\t");
+                case '\b' -> appendOn("\\b", 0, 2);
+                case '\f' -> appendOn("\\f", 0, 2);
+                case '\n' -> appendOn("\\n", 0, 2);
+                case '\r' -> appendOn("\\r", 0, 2);
+                case '\t' -> appendOn("\\t", 0, 2);
                 default -> {
                     String hex = "000" + Integer.toHexString(c);
-                    appendOn("\\u");
-                    appendOn(hex.substring(hex.length() - 4));
+                    appendOn("\\u", 0, 2);
+                    appendOn(hex, hex.length() - 4, hex.length());
                 }
             }
         }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct.lang;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * The output stream that writes to a byte buffer.
+ * The bytes are written from the position of the buffer, and the position is advanced.
+ * @author Naotsugu Kobayashi
+ */
+public class ByteBufferOutputStream extends OutputStream {
+
+    /** The byte buffer. */
+    private final ByteBuffer buffer;
+
+
+    /**
+     * Constructor.
+     * @param buffer the byte buffer
+     */
+    private ByteBufferOutputStream(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+
+    /**
+     * Create a new ByteBufferOutputStream.
+     * @param buffer the byte buffer
+     * @return a new ByteBufferOutputStream
+     */
+    public static ByteBufferOutputStream of(ByteBuffer buffer) {
+        return new ByteBufferOutputStream(buffer);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * @throws java.nio.BufferOverflowException if the buffer has no remaining
+     */
+    @Override
+    public void write(int b) {
+        buffer.put((byte) b);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * @throws java.nio.BufferOverflowException if the remaining of the buffer is not enough
+     */
+    @Override
+    public void write(byte[] b, int off, int len) {
+        buffer.put(b, off, len);
+    }
+
+}
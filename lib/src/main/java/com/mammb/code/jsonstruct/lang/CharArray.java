@@ -17,6 +17,7 @@ package com.mammb.code.jsonstruct.lang;
 
 import com.mammb.code.jsonstruct.parser.CharSource;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /**
@@ -89,6 +90,76 @@ public class CharArray implements Serializable {
     }
 
 
+    /**
+     * Add char values.
+     * @param values the char values
+     * @param off the offset of the values
+     * @param len the length of the values
+     */
+    public void add(char[] values, int off, int len) {
+        if (length + len > elements.length) {
+            elements = grow(length + len);
+        }
+        System.arraycopy(values, off, elements, length, len);
+        length += len;
+    }
+
+
+    /**
+     * Add chars of the string.
+     * @param str the string
+     * @param start the beginning index, inclusive
+     * @param end the ending index, exclusive
+     */
+    public void add(String str, int start, int end) {
+        int len = end - start;
+        if (length + len > elements.length) {
+            elements = grow(length + len);
+        }
+        str.getChars(start, end, elements, length);
+        length += len;
+    }
+
+
+    /**
+     * Add ASCII bytes as chars.
+     * @param bytes the ASCII bytes
+     * @param off the offset of the bytes
+     * @param len the length of the bytes
+     */
+    public void addAscii(byte[] bytes, int off, int len) {
+        if (length + len > elements.length) {
+            elements = grow(length + len);
+        }
+        char[] e = elements;
+        int n = length;
+        for (int i = 0; i < len; i++) {
+            e[n + i] = (char) bytes[off + i];
+        }
+        length += len;
+    }
+
+
+    /**
+     * Add ASCII bytes of the byte buffer as chars.
+     * The bytes are read with absolute gets, the position of the buffer is not changed.
+     * @param bytes the ASCII bytes
+     * @param off the index of the bytes in the buffer
+     * @param len the length of the bytes
+     */
+    public void addAscii(ByteBuffer bytes, int off, int len) {
+        if (length + len > elements.length) {
+            elements = grow(length + len);
+        }
+        char[] e = elements;
+        int n = length;
+        for (int i = 0; i < len; i++) {
+            e[n + i] = (char) bytes.get(off + i);
+        }
+        length += len;
+    }
+
+
     /**
      * Add char value.
      * @param value the char value
@@ -124,6 +195,30 @@ public class CharArray implements Serializable {
     }
 
 
+    /**
+     * Gets the hash code of the elements, same as {@link String#hashCode()} of the elements.
+     * @return the hash code of the elements
+     */
+    public int contentHash() {
+        int h = 0;
+        char[] e = elements;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + e[i];
+        }
+        return h;
+    }
+
+
+    /**
+     * Gets whether the elements are equal to the given chars.
+     * @param chars the chars to compare
+     * @return {@code true} if the elements are equal to the given chars
+     */
+    public boolean contentEquals(char[] chars) {
+        return Arrays.equals(elements, 0, length, chars, 0, chars.length);
+    }
+
+
     /**
      * Gets an array containing all the elements in this array in proper sequence.
      * @return an array containing all the elements in this array in proper sequence
@@ -80,7 +80,7 @@ public class CharBufferReader implements CharReader {
             return latestRead;
         }
         if (next >= limit) fillBuffer();
-        if (next == limit) return -1;
+        if (next == limit) return latestRead = -1;
         latestRead = buf[next++];
         return latestRead;
     }
@@ -100,7 +100,7 @@ public class CharBufferReader implements CharReader {
     public int length(Predicate<Character> until) {
         try {
             int length = 0;
-            if (stepBack && !until.test((char) latestRead)) {
+            if (stepBack && (latestRead == -1 || !until.test((char) latestRead))) {
                 return length;
             }
             for (int i = next  + (stepBack ? 1 : 0); i < limit; i++, length++) {
@@ -123,11 +123,45 @@ public class CharBufferReader implements CharReader {
     }
 
 
+    @Override
+    public int scanString(CharArray ca) {
+        int n = 0;
+        if (stepBack) {
+            if (latestRead < ' ' || latestRead == '"' || latestRead == '\\') return n;
+            stepBack = false;
+            ca.add((char) latestRead);
+            position++;
+            n++;
+        }
+        for (;;) {
+            if (next >= limit) {
+                fillBuffer();
+                if (next == limit) return n;
+            }
+            int i = next;
+            for (; i < limit; i++) {
+                char c = buf[i];
+                if (c < ' ' || c == '"' || c == '\\') break;
+            }
+            int len = i - next;
+            if (len > 0) {
+                ca.add(buf, next, len);
+                latestRead = buf[i - 1];
+                position += len;
+                n += len;
+                next = i;
+            }
+            if (i < limit) return n;
+        }
+    }
+
+
     @Override
     public int read(char[] chars, int off, int len) {
         try {
             position += len;
             if (stepBack) {
+                if (latestRead == -1) return -1;
                 chars[off] = (char) latestRead;
                 stepBack = false;
                 return in.read(chars, off + 1, len - 1) + 1;
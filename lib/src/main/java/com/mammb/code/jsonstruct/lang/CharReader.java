@@ -50,6 +50,29 @@ public interface CharReader extends Closeable {
     int length(Predicate<Character> until);
 
 
+    /**
+     * Reads the plain characters of a json string into the char array.
+     * Reading stops before a terminator of the plain characters,
+     * that is {@code "}, {@code \} or a control character, or at the end of the stream.
+     * The terminator is not read.
+     *
+     * @param ca the destination char array
+     * @return the number of characters read
+     */
+    default int scanString(CharArray ca) {
+        int n = 0;
+        for (;;) {
+            int ch = read();
+            if (ch < ' ' || ch == '"' || ch == '\\') {
+                stepBack();
+                return n;
+            }
+            ca.add((char) ch);
+            n++;
+        }
+    }
+
+
     /**
      * Reads characters into a portion of an array.
      *
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct.lang;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The output stream that writes to a chain of direct byte buffer segments,
+ * and writes the segments to a channel at once with a gathering write.
+ * The segments are written when the chain is full and on {@link #flush()},
+ * and are returned to a pool shared across the streams on {@link #close()}.
+ * The channel is not closed.
+ * @author Naotsugu Kobayashi
+ */
+public class GatheringOutputStream extends OutputStream {
+
+    /** The size of a segment. */
+    private static final int SEGMENT_SIZE = 1 << 16;
+
+    /** The max number of segments in a chain. */
+    private static final int MAX_SEGMENTS = 16;
+
+    /** The max number of segments in the pool. */
+    private static final int MAX_POOLED = 64;
+
+    /** The pool of segments. */
+    private static final Queue<ByteBuffer> POOL = new ConcurrentLinkedQueue<>();
+
+    /** The number of segments in the pool. */
+    private static final AtomicInteger POOLED = new AtomicInteger();
+
+    /** The channel. */
+    private final GatheringByteChannel channel;
+
+    /** The chain of segments. */
+    private final ByteBuffer[] segments;
+
+    /** The number of segments in use. */
+    private int size;
+
+
+    /**
+     * Constructor.
+     * @param channel the channel
+     */
+    private GatheringOutputStream(GatheringByteChannel channel) {
+        this.channel = channel;
+        this.segments = new ByteBuffer[MAX_SEGMENTS];
+    }
+
+
+    /**
+     * Create a new GatheringOutputStream.
+     * @param channel the channel to be written
+     * @return a new GatheringOutputStream
+     */
+    public static GatheringOutputStream of(GatheringByteChannel channel) {
+        return new GatheringOutputStream(channel);
+    }
+
+
+    @Override
+    public void write(int b) throws IOException {
+        current().put((byte) b);
+    }
+
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            ByteBuffer segment = current();
+            int n = Math.min(len, segment.remaining());
+            segment.put(b, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+
+    /**
+     * Write the segments to the channel with a gathering write.
+     * @throws IOException if io error occurred
+     */
+    @Override
+    public void flush() throws IOException {
+        if (size == 0) {
+            return;
+        }
+        long remaining = 0;
+        for (int i = 0; i < size; i++) {
+            remaining += segments[i].flip().remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(segments, 0, size);
+        }
+        for (int i = 0; i < size; i++) {
+            segments[i].clear();
+        }
+        // the first segment is kept for the next writes
+        for (int i = 1; i < size; i++) {
+            release(segments[i]);
+            segments[i] = null;
+        }
+        size = 1;
+    }
+
+
+    /**
+     * Write the segments to the channel, and return the segments to the pool.
+     * @throws IOException if io error occurred
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            for (int i = 0; i < size; i++) {
+                release(segments[i]);
+                segments[i] = null;
+            }
+            size = 0;
+        }
+    }
+
+
+    /**
+     * Gets the current segment that has room, the chain is written to the channel when full.
+     * @return the current segment
+     * @throws IOException if io error occurred
+     */
+    private ByteBuffer current() throws IOException {
+        if (size > 0 && segments[size - 1].hasRemaining()) {
+            return segments[size - 1];
+        }
+        if (size == MAX_SEGMENTS) {
+            flush();
+            return segments[0];
+        }
+        ByteBuffer segment = POOL.poll();
+        if (segment == null) {
+            segment = ByteBuffer.allocateDirect(SEGMENT_SIZE);
+        } else {
+            POOLED.decrementAndGet();
+        }
+        segments[size++] = segment;
+        return segment;
+    }
+
+
+    private static void release(ByteBuffer segment) {
+        if (POOLED.incrementAndGet() <= MAX_POOLED) {
+            POOL.offer(segment.clear());
+        } else {
+            POOLED.decrementAndGet();
+        }
+    }
+
+}
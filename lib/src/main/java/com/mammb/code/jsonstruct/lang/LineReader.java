@@ -0,0 +1,187 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct.lang;
+
+import java.io.IOException;
+import java.util.function.Predicate;
+
+/**
+ * The reader bounded by lines.
+ * The end of the current line is read as the end of the stream,
+ * and {@link #nextLine()} advances to the next line.
+ * Used to read JSON Lines with a single reader.
+ * @author Naotsugu Kobayashi
+ */
+public class LineReader implements CharReader {
+
+    /** The reader within. */
+    private final CharReader in;
+
+    /** The number of the current line, starting from 1. */
+    private int lineNumber;
+
+    /** Whether the end of the current line has been reached. */
+    private boolean eol;
+
+    /** Whether the end of the stream has been reached. */
+    private boolean eof;
+
+    /** The previous character. */
+    private int latestRead;
+
+    /** need stepBack?. */
+    private boolean stepBack;
+
+
+    /**
+     * Constructor.
+     * @param in the reader within
+     */
+    private LineReader(CharReader in) {
+        this.in = in;
+        this.lineNumber = 0;
+        this.eol = true;
+        this.latestRead = -1;
+    }
+
+
+    /**
+     * Create a new LineReader.
+     * The reader is placed before the first line, call {@link #nextLine()} to start reading.
+     * @param in the reader within
+     * @return a new LineReader
+     */
+    public static LineReader of(CharReader in) {
+        return new LineReader(in);
+    }
+
+
+    /**
+     * Advances to the next line, the rest of the current line is skipped.
+     * @return {@code true} if the next line exists
+     */
+    public boolean nextLine() {
+        stepBack = false;
+        while (!eol) {
+            read();
+        }
+        if (eof) {
+            return false;
+        }
+        eol = false;
+        lineNumber++;
+        return true;
+    }
+
+
+    /**
+     * Gets the number of the current line.
+     * @return the number of the current line, starting from 1
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+
+    @Override
+    public int read() {
+        if (stepBack) {
+            stepBack = false;
+            return latestRead;
+        }
+        if (eol) {
+            return latestRead = -1;
+        }
+        int ch = in.read();
+        if (ch == '\n' || ch == -1) {
+            eol = true;
+            eof = (ch == -1);
+            return latestRead = -1;
+        }
+        return latestRead = ch;
+    }
+
+
+    @Override
+    public int readNextChar() {
+        int ch;
+        do {
+            ch = read();
+        } while (ch == ' ' || ch == '\t' || ch == '\r');
+        return ch;
+    }
+
+
+    @Override
+    public int length(Predicate<Character> until) {
+        Predicate<Character> inLine = ch -> ch != '\n' && until.test(ch);
+        int length = 0;
+        if (stepBack) {
+            if (latestRead == -1 || !until.test((char) latestRead)) {
+                return length;
+            }
+            length++;
+        }
+        return eol ? length : length + in.length(inLine);
+    }
+
+
+    @Override
+    public int scanString(CharArray ca) {
+        if (stepBack || eol) {
+            return CharReader.super.scanString(ca);
+        }
+        // the line feed is a control character, the reader within stops before it
+        return in.scanString(ca);
+    }
+
+
+    @Override
+    public int read(char[] chars, int off, int len) {
+        int n = 0;
+        for (; n < len; n++) {
+            int ch = read();
+            if (ch == -1) break;
+            chars[off + n] = (char) ch;
+        }
+        return (n == 0 && len > 0) ? -1 : n;
+    }
+
+
+    @Override
+    public void skip(int n) {
+        for (int i = 0; i < n; i++) read();
+    }
+
+
+    @Override
+    public void stepBack() {
+        stepBack = true;
+    }
+
+
+    @Override
+    public int getPosition() {
+        return in.getPosition() - (stepBack ? 1 : 0);
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct.lang;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+/**
+ * The double buffered reader that reads ahead.
+ * While the chars of a buffer are consumed, the other buffer is filled from the reader
+ * in the background, and the buffers are swapped when the current buffer runs out.
+ * The reading of the underlying reader overlaps with the tokenizing.
+ * @author Naotsugu Kobayashi
+ */
+public class ReadAheadReader implements CharReader {
+
+    /** The default size of buffer. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** The reader within. */
+    private final Reader in;
+
+    /** The buffers filled by the background task. */
+    private final BlockingQueue<Chunk> filled;
+
+    /** The buffers to be filled by the background task. */
+    private final BlockingQueue<char[]> free;
+
+    /** The position of reader. */
+    private int position;
+
+    /** The current buffer. */
+    private char[] buf;
+
+    /** The number of limit for the current buffer. */
+    private int limit;
+
+    /** The index of next read. */
+    private int next;
+
+    /** Whether the end of the stream has been reached. */
+    private boolean eof;
+
+    /** The previous character. */
+    private int latestRead;
+
+    /** need stepBack?. */
+    private boolean stepBack;
+
+    /** Whether closed. */
+    private volatile boolean closed;
+
+
+    /**
+     * The filled buffer.
+     * @param buf the buffer
+     * @param length the number of chars, {@code -1} if the end of the stream
+     * @param error the error while reading, or {@code null}
+     */
+    private record Chunk(char[] buf, int length, IOException error) { }
+
+
+    /**
+     * Constructor.
+     * @param in the reader within
+     * @param size the size of buffer
+     */
+    private ReadAheadReader(Reader in, int size) {
+        this.in = in;
+        this.filled = new ArrayBlockingQueue<>(2);
+        this.free = new ArrayBlockingQueue<>(2);
+        this.free.add(new char[size]);
+        this.free.add(new char[size]);
+        this.latestRead = -1;
+    }
+
+
+    /**
+     * Create a new ReadAheadReader, which reads ahead on a daemon thread.
+     * @param in the reader within
+     * @return a new ReadAheadReader
+     */
+    public static ReadAheadReader of(Reader in) {
+        return of(in, task -> {
+            Thread thread = new Thread(task, "json-read-ahead");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+
+    /**
+     * Create a new ReadAheadReader, which reads ahead on the executor.
+     * The executor runs one long-lived task until the end of the stream or close.
+     * @param in the reader within
+     * @param executor the executor of the read ahead task
+     * @return a new ReadAheadReader
+     */
+    public static ReadAheadReader of(Reader in, Executor executor) {
+        ReadAheadReader reader = new ReadAheadReader(in, BUFFER_SIZE);
+        executor.execute(reader::readAhead);
+        return reader;
+    }
+
+
+    @Override
+    public int read() {
+        position++;
+        if (stepBack) {
+            stepBack = false;
+            return latestRead;
+        }
+        if (next >= limit && !swap()) {
+            return latestRead = -1;
+        }
+        return latestRead = buf[next++];
+    }
+
+
+    @Override
+    public int readNextChar() {
+        int ch;
+        do {
+            ch = read();
+        } while (ch == ' ' || ch == '\t' || ch == '\r' || ch == '\n');
+        return ch;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * The length is counted up to the end of the current buffer.
+     */
+    @Override
+    public int length(Predicate<Character> until) {
+        int length = 0;
+        if (stepBack) {
+            if (latestRead == -1 || !until.test((char) latestRead)) {
+                return length;
+            }
+            length++;
+        }
+        for (int i = next; i < limit && until.test(buf[i]); i++) {
+            length++;
+        }
+        return length;
+    }
+
+
+    @Override
+    public int scanString(CharArray ca) {
+        int n = 0;
+        if (stepBack) {
+            if (latestRead < ' ' || latestRead == '"' || latestRead == '\\') return n;
+            stepBack = false;
+            ca.add((char) latestRead);
+            position++;
+            n++;
+        }
+        for (;;) {
+            if (next >= limit && !swap()) {
+                return n;
+            }
+            int i = next;
+            for (; i < limit; i++) {
+                char c = buf[i];
+                if (c < ' ' || c == '"' || c == '\\') break;
+            }
+            int len = i - next;
+            if (len > 0) {
+                ca.add(buf, next, len);
+                latestRead = buf[i - 1];
+                position += len;
+                n += len;
+                next = i;
+            }
+            if (i < limit) return n;
+        }
+    }
+
+
+    @Override
+    public int read(char[] chars, int off, int len) {
+        int n = 0;
+        if (len > 0 && stepBack) {
+            stepBack = false;
+            chars[off + n++] = (char) latestRead;
+        }
+        while (n < len) {
+            if (next >= limit && !swap()) {
+                break;
+            }
+            int count = Math.min(len - n, limit - next);
+            System.arraycopy(buf, next, chars, off + n, count);
+            next += count;
+            n += count;
+        }
+        position += n;
+        return (n == 0 && len > 0) ? -1 : n;
+    }
+
+
+    @Override
+    public void skip(int n) {
+        for (int i = 0; i < n; i++) read();
+    }
+
+
+    @Override
+    public void stepBack() {
+        position--;
+        stepBack = true;
+    }
+
+
+    @Override
+    public int getPosition() {
+        return position;
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        // wake up the background task waiting for a free buffer or for a room of the filled buffers
+        free.offer(new char[0]);
+        filled.clear();
+        in.close();
+    }
+
+
+    /**
+     * Swap the current buffer for the next filled buffer.
+     * @return {@code false} if the end of the stream
+     */
+    private boolean swap() {
+        if (eof) {
+            return false;
+        }
+        try {
+            if (buf != null) {
+                free.put(buf);
+                buf = null;
+            }
+            Chunk chunk = filled.take();
+            if (chunk.error != null) {
+                eof = true;
+                throw new RuntimeException(chunk.error);
+            }
+            if (chunk.length < 0) {
+                eof = true;
+                return false;
+            }
+            buf = chunk.buf;
+            limit = chunk.length;
+            next = 0;
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+
+    /**
+     * Fill the free buffers until the end of the stream, run in the background.
+     */
+    private void readAhead() {
+        try {
+            for (;;) {
+                char[] b = free.take();
+                if (closed) {
+                    return;
+                }
+                int len = 0;
+                int ret;
+                while (len < b.length && (ret = in.read(b, len, b.length - len)) != -1) {
+                    len += ret;
+                }
+                if (len > 0) {
+                    filled.put(new Chunk(b, len, null));
+                }
+                if (len < b.length) {
+                    filled.put(new Chunk(b, -1, null));
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                filled.offer(new Chunk(null, -1, e));
+            }
+        } catch (InterruptedException e) {
+            filled.offer(new Chunk(null, -1, new InterruptedIOException()));
+        }
+    }
+
+}
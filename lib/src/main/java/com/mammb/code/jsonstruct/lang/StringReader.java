@@ -26,7 +26,7 @@ public class StringReader implements CharReader {
     /** the source string. */
     private String string;
 
-    /** the source length. */
+    /** the end index of the source, exclusive. */
     private int length;
 
     /** index of next reading. */
@@ -38,9 +38,23 @@ public class StringReader implements CharReader {
      * @param string the source string
      */
     public StringReader(String string) {
+        this(string, 0, string.length());
+    }
+
+
+    /**
+     * Constructor.
+     * @param string the source string
+     * @param start the beginning index, inclusive
+     * @param end the ending index, exclusive
+     */
+    private StringReader(String string, int start, int end) {
+        if (start < 0 || start > end || end > string.length()) {
+            throw new IndexOutOfBoundsException(end);
+        }
         this.string = string;
-        this.length = string.length();
-        this.next = 0;
+        this.length = end;
+        this.next = start;
     }
 
 
@@ -54,9 +68,27 @@ public class StringReader implements CharReader {
     }
 
 
+    /**
+     * Create a new StringReader for the range of given string.
+     * The position of the reader is the index in the whole string.
+     * @param string the source string
+     * @param start the beginning index, inclusive
+     * @param end the ending index, exclusive
+     * @return a new StringReader
+     */
+    public static StringReader of(String string, int start, int end) {
+        return new StringReader(string, start, end);
+    }
+
+
     @Override
     public int read() {
-        return (next >= length) ? -1 : string.charAt(next++);
+        if (next >= length) {
+            // step over the end, so that stepBack() returns to the end
+            next = length + 1;
+            return -1;
+        }
+        return string.charAt(next++);
     }
 
 
@@ -64,7 +96,11 @@ public class StringReader implements CharReader {
     public int readNextChar() {
         int ch;
         do {
-            ch = (next >= length) ? -1 : string.charAt(next++);
+            if (next >= length) {
+                next = length + 1;
+                return -1;
+            }
+            ch = string.charAt(next++);
         } while (ch == ' ' || ch == '\t' || ch == '\r' || ch == '\n');
         return ch;
     }
@@ -82,6 +118,21 @@ public class StringReader implements CharReader {
     }
 
 
+    @Override
+    public int scanString(CharArray ca) {
+        int i = next;
+        for (; i < length; i++) {
+            char c = string.charAt(i);
+            if (c < ' ' || c == '"' || c == '\\') break;
+        }
+        if (i <= next) return 0;
+        ca.add(string, next, i);
+        int n = i - next;
+        next = i;
+        return n;
+    }
+
+
     @Override
     public int read(char[] chars, int off, int len) {
 
@@ -99,7 +150,7 @@ public class StringReader implements CharReader {
 
     @Override
     public void skip(int n) {
-        next += Math.min(length - next, n);
+        next += Math.max(0, Math.min(length - next, n));
     }
 
 
@@ -0,0 +1,603 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct.lang;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * Utf8Reader.
+ * Reads UTF-8 encoded bytes as characters without an intermediate {@link java.io.Reader}.
+ * Bytes are decoded only when they are read, with a fast path for ASCII.
+ * A direct byte buffer, e.g. a mapped file, is read in place with absolute gets,
+ * and only a stream source is copied into a heap buffer.
+ * Malformed input is replaced with {@code U+FFFD}.
+ * @author Naotsugu Kobayashi
+ */
+public class Utf8Reader implements CharReader {
+
+    /** The replacement character. */
+    private static final char REPLACEMENT = '\uFFFD';
+
+    /** The view of byte array as long. */
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /** The low 7 bits of each byte. */
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+
+    /** The high bit of each byte. */
+    private static final long HIGH = 0x8080808080808080L;
+
+    /** The pattern of {@code "}. */
+    private static final long QUOTE = 0x2222222222222222L;
+
+    /** The pattern of {@code \}. */
+    private static final long BACKSLASH = 0x5C5C5C5C5C5C5C5CL;
+
+    /** The pattern of the bits that must be zero for control characters. */
+    private static final long CONTROL = 0xE0E0E0E0E0E0E0E0L;
+
+    /** The size of read buffer for streaming source. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** The file size threshold to map the file into memory. */
+    private static final long MAPPING_THRESHOLD = 1L << 20;
+
+    /** The stream source, {@code null} if the source is not a stream. */
+    private InputStream in;
+
+    /** The direct byte buffer source read in place, {@code null} if the source is not a direct byte buffer. */
+    private ByteBuffer src;
+
+    /** The read buffer, {@code null} if the source is a direct byte buffer. */
+    private byte[] buf;
+
+    /** The index of next read, in the read buffer or in the direct byte buffer. */
+    private int next;
+
+    /** The number of limit for read buffer, or the limit of the direct byte buffer. */
+    private int limit;
+
+    /** The position of reader. */
+    private int position;
+
+    /** The low surrogate to be read next, or {@code -1}. */
+    private int lowSurrogate;
+
+    /** The previous character. */
+    private int latestRead;
+
+    /** need stepBack?. */
+    private boolean stepBack;
+
+
+    /**
+     * Constructor.
+     * @param in the stream source
+     * @param src the byte buffer source
+     * @param buf the read buffer
+     * @param next the index of next read
+     * @param limit the number of limit for read buffer
+     */
+    private Utf8Reader(InputStream in, ByteBuffer src, byte[] buf, int next, int limit) {
+        this.in = in;
+        this.src = src;
+        this.buf = buf;
+        this.next = next;
+        this.limit = limit;
+        this.position = 0;
+        this.lowSurrogate = -1;
+        this.latestRead = -1;
+        skipBom();
+    }
+
+
+    /**
+     * Create a new Utf8Reader.
+     * @param bytes the UTF-8 encoded bytes
+     * @return a new Utf8Reader
+     */
+    public static Utf8Reader of(byte[] bytes) {
+        return new Utf8Reader(null, null, bytes, 0, bytes.length);
+    }
+
+
+    /**
+     * Create a new Utf8Reader.
+     * @param bytes the UTF-8 encoded bytes
+     * @param off the offset of the bytes
+     * @param len the length of the bytes
+     * @return a new Utf8Reader
+     */
+    public static Utf8Reader of(byte[] bytes, int off, int len) {
+        if (off < 0 || len < 0 || off + len > bytes.length) {
+            throw new IndexOutOfBoundsException(off + len);
+        }
+        return new Utf8Reader(null, null, bytes, off, off + len);
+    }
+
+
+    /**
+     * Create a new Utf8Reader.
+     * @param in the UTF-8 encoded stream
+     * @return a new Utf8Reader
+     */
+    public static Utf8Reader of(InputStream in) {
+        return new Utf8Reader(in, null, new byte[BUFFER_SIZE], 0, 0);
+    }
+
+
+    /**
+     * Create a new Utf8Reader.
+     * The bytes between the position and the limit of the buffer are read.
+     * @param buffer the UTF-8 encoded byte buffer
+     * @return a new Utf8Reader
+     */
+    public static Utf8Reader of(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            int off = buffer.arrayOffset() + buffer.position();
+            return new Utf8Reader(null, null, buffer.array(), off, off + buffer.remaining());
+        }
+        // direct buffers, e.g. a mapped file, are read in place with absolute gets
+        return new Utf8Reader(null, buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN),
+            null, buffer.position(), buffer.limit());
+    }
+
+
+    /**
+     * Create a new Utf8Reader.
+     * Small files are read into memory at once, large files are mapped into memory.
+     * Files larger than the mappable size are read as a stream.
+     * @param path the path of the UTF-8 encoded file
+     * @return a new Utf8Reader
+     */
+    public static Utf8Reader of(Path path) {
+        try {
+            long size = Files.size(path);
+            if (size < MAPPING_THRESHOLD) {
+                return of(Files.readAllBytes(path));
+            }
+            if (size > Integer.MAX_VALUE) {
+                return of(Files.newInputStream(path));
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                // the mapping remains valid after the channel is closed
+                return of(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+
+    @Override
+    public int read() {
+        position++;
+        if (stepBack) {
+            stepBack = false;
+            return latestRead;
+        }
+        if (lowSurrogate >= 0) {
+            latestRead = lowSurrogate;
+            lowSurrogate = -1;
+            return latestRead;
+        }
+        if (next >= limit && !fill()) {
+            return latestRead = -1;
+        }
+        int b = byteAt(next);
+        if (b >= 0) {
+            next++;
+            return latestRead = b;
+        }
+        return latestRead = decode();
+    }
+
+
+    @Override
+    public int readNextChar() {
+        int ch;
+        do {
+            ch = read();
+        } while (ch == ' ' || ch == '\t' || ch == '\r' || ch == '\n');
+        return ch;
+    }
+
+
+    @Override
+    public int length(Predicate<Character> until) {
+        int length = 0;
+        if (stepBack) {
+            if (latestRead == -1 || !until.test((char) latestRead)) return length;
+            length++;
+        }
+        if (lowSurrogate >= 0) {
+            if (!until.test((char) lowSurrogate)) return length;
+            length++;
+        }
+        int i = next;
+        for (;;) {
+            if (i >= limit) {
+                int shift = fillAhead();
+                if (shift < 0) return length;
+                i -= shift;
+            }
+            int b = byteAt(i);
+            if (b >= 0) {
+                if (!until.test((char) b)) return length;
+                i++;
+                length++;
+                continue;
+            }
+            int n = sequenceLength(b);
+            if (i + n > limit) {
+                int shift = fillAhead();
+                if (shift >= 0) {
+                    i -= shift;
+                    continue;
+                }
+            }
+            // the multibyte sequence is handled by the decoder on read
+            int cp = (i + n > limit) ? REPLACEMENT : codePoint(b, i, n);
+            if (Character.isSupplementaryCodePoint(cp)) {
+                if (!until.test(Character.highSurrogate(cp))) return length;
+                length++;
+                if (!until.test(Character.lowSurrogate(cp))) return length;
+                length++;
+            } else {
+                if (!until.test((char) cp)) return length;
+                length++;
+            }
+            i += validLength(b, i, n);
+        }
+    }
+
+
+    @Override
+    public int scanString(CharArray ca) {
+
+        int n = 0;
+        if (stepBack) {
+            if (latestRead < ' ' || latestRead == '"' || latestRead == '\\') return n;
+            stepBack = false;
+            ca.add((char) latestRead);
+            n++;
+        }
+        if (lowSurrogate >= 0) {
+            ca.add((char) (latestRead = lowSurrogate));
+            lowSurrogate = -1;
+            n++;
+        }
+
+        for (;;) {
+            if (next >= limit && !fill()) {
+                break;
+            }
+            int i = next;
+            // 8 bytes at a time, stop at a terminator or a non ASCII byte
+            for (; i + 8 <= limit; i += 8) {
+                long w = longAt(i);
+                long stop = eq(w, QUOTE) | eq(w, BACKSLASH) | eq(w & CONTROL, 0) | (w & HIGH);
+                if (stop != 0) {
+                    i += Long.numberOfTrailingZeros(stop) >>> 3;
+                    break;
+                }
+            }
+            for (; i < limit; i++) {
+                int b = byteAt(i);
+                if (b < ' ' || b == '"' || b == '\\') break;
+            }
+            int len = i - next;
+            if (len > 0) {
+                if (buf != null) {
+                    ca.addAscii(buf, next, len);
+                } else {
+                    ca.addAscii(src, next, len);
+                }
+                latestRead = byteAt(i - 1);
+                next = i;
+                n += len;
+            }
+            if (i < limit) {
+                if (byteAt(i) >= 0) {
+                    // terminator
+                    break;
+                }
+                ca.add((char) (latestRead = decode()));
+                n++;
+                if (lowSurrogate >= 0) {
+                    ca.add((char) (latestRead = lowSurrogate));
+                    lowSurrogate = -1;
+                    n++;
+                }
+            }
+        }
+        position += n;
+        return n;
+    }
+
+
+    @Override
+    public int read(char[] chars, int off, int len) {
+
+        if (chars.length < off + len) throw new IndexOutOfBoundsException(off + len);
+        if (len == 0) return 0;
+
+        int n = 0;
+        if (stepBack) {
+            stepBack = false;
+            if (latestRead == -1) return -1;
+            chars[off + n++] = (char) latestRead;
+        }
+        while (n < len) {
+            if (lowSurrogate >= 0) {
+                chars[off + n++] = (char) (latestRead = lowSurrogate);
+                lowSurrogate = -1;
+                continue;
+            }
+            if (next >= limit && !fill()) {
+                break;
+            }
+            // ASCII fast path
+            int end = Math.min(limit, next + len - n);
+            int b;
+            while (next < end && (b = byteAt(next)) >= 0) {
+                chars[off + n++] = (char) b;
+                next++;
+            }
+            if (n < len && next < limit && byteAt(next) < 0) {
+                chars[off + n++] = (char) decode();
+            }
+        }
+        if (n == 0) return -1;
+        latestRead = chars[off + n - 1];
+        position += n;
+        return n;
+    }
+
+
+    @Override
+    public void skip(int n) {
+        for (int i = 0; i < n; i++) read();
+    }
+
+
+    @Override
+    public void stepBack() {
+        position--;
+        stepBack = true;
+    }
+
+
+    @Override
+    public int getPosition() {
+        return position;
+    }
+
+
+    @Override
+    public void close() {
+        try {
+            if (in != null) in.close();
+            in = null;
+            src = null;
+            buf = null;
+            position = 0;
+            limit = 0;
+            next = -1;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+
+    /**
+     * Gets the word that has the high bit set in each byte equal to the pattern.
+     * @param w the word
+     * @param pattern the pattern
+     * @return the word of high bits
+     */
+    private static long eq(long w, long pattern) {
+        long x = w ^ pattern;
+        long t = (x & LOW7) + LOW7;
+        return ~(t | x | LOW7);
+    }
+
+
+    /**
+     * Decode a multibyte sequence at the next index.
+     * @return the decoded character
+     */
+    private int decode() {
+        int b = byteAt(next);
+        int n = sequenceLength(b);
+        while (next + n > limit && fillAhead() >= 0) {
+            // a short read may deliver the sequence a byte at a time
+        }
+        if (next + n > limit) {
+            next += validLength(b, next, n);
+            return REPLACEMENT;
+        }
+        int cp = codePoint(b, next, n);
+        next += validLength(b, next, n);
+        if (Character.isSupplementaryCodePoint(cp)) {
+            lowSurrogate = Character.lowSurrogate(cp);
+            return Character.highSurrogate(cp);
+        }
+        return cp;
+    }
+
+
+    /**
+     * Gets the code point of the multibyte sequence.
+     * @param b the leading byte
+     * @param i the index of the leading byte
+     * @param n the length of the sequence
+     * @return the code point, or the replacement character if malformed
+     */
+    private int codePoint(int b, int i, int n) {
+        if (validLength(b, i, n) != n) {
+            return REPLACEMENT;
+        }
+        int cp = switch (n) {
+            case 2 -> ((b & 0x1F) << 6) | (byteAt(i + 1) & 0x3F);
+            case 3 -> ((b & 0x0F) << 12) | ((byteAt(i + 1) & 0x3F) << 6) | (byteAt(i + 2) & 0x3F);
+            case 4 -> ((b & 0x07) << 18) | ((byteAt(i + 1) & 0x3F) << 12) | ((byteAt(i + 2) & 0x3F) << 6) | (byteAt(i + 3) & 0x3F);
+            default -> REPLACEMENT;
+        };
+        // reject overlong, surrogate and out of range
+        if (n == 2 && cp < 0x80 || n == 3 && (cp < 0x800 || Character.isSurrogate((char) cp)) ||
+            n == 4 && (cp < 0x10000 || cp > Character.MAX_CODE_POINT)) {
+            return REPLACEMENT;
+        }
+        return cp;
+    }
+
+
+    /**
+     * Gets the number of bytes consumed by the sequence.
+     * A malformed sequence consumes the bytes up to the first illegal continuation byte.
+     * @param b the leading byte
+     * @param i the index of the leading byte
+     * @param n the length of the sequence
+     * @return the number of bytes consumed
+     */
+    private int validLength(int b, int i, int n) {
+        if (n == 1) return 1;
+        for (int k = 1; k < n; k++) {
+            if (i + k >= limit || (byteAt(i + k) & 0xC0) != 0x80) {
+                return k;
+            }
+        }
+        return n;
+    }
+
+
+    /**
+     * Gets the byte at the index of the read buffer, or of the direct byte buffer.
+     * @param i the index
+     * @return the byte
+     */
+    private int byteAt(int i) {
+        return (buf != null) ? buf[i] : src.get(i);
+    }
+
+
+    /**
+     * Gets the 8 bytes at the index as a little endian long.
+     * @param i the index
+     * @return the long value
+     */
+    private long longAt(int i) {
+        return (buf != null) ? (long) LONG.get(buf, i) : src.getLong(i);
+    }
+
+
+    /**
+     * Gets the length of the sequence from the leading byte.
+     * @param b the leading byte
+     * @return the length of the sequence, {@code 1} if illegal leading byte
+     */
+    private static int sequenceLength(int b) {
+        if ((b & 0xE0) == 0xC0) return 2;
+        if ((b & 0xF0) == 0xE0) return 3;
+        if ((b & 0xF8) == 0xF0) return 4;
+        return 1;
+    }
+
+
+    /**
+     * Fill up the buffer from the source, keeping the unread bytes.
+     * @return {@code true} if any unread bytes exist
+     */
+    private boolean fill() {
+        fillAhead();
+        return next < limit;
+    }
+
+
+    /**
+     * Read more bytes from the stream source, keeping the unread bytes.
+     * The buffer is compacted, and grown if it is full.
+     * Other sources are available as a whole from the beginning.
+     * @return the number of bytes shifted by compaction, or {@code -1} if no more bytes
+     */
+    private int fillAhead() {
+        if (in == null) {
+            return -1;
+        }
+        int shift = next;
+        if (shift > 0) {
+            System.arraycopy(buf, next, buf, 0, limit - next);
+            limit -= next;
+            next = 0;
+        }
+        if (limit == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length << 1);
+        }
+        int n = readSource(buf, limit, buf.length - limit);
+        if (n <= 0) {
+            return (shift > 0) ? shift : -1;
+        }
+        limit += n;
+        return shift;
+    }
+
+
+    /**
+     * Read bytes from the stream source.
+     * @param b the destination
+     * @param off the offset of the destination
+     * @param len the max length to read
+     * @return the number of bytes read, {@code -1} if end of the source
+     */
+    private int readSource(byte[] b, int off, int len) {
+        try {
+            int n;
+            do {
+                n = in.read(b, off, len);
+            } while (n == 0);
+            return n;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+
+    /**
+     * Skip the byte order mark if exists.
+     */
+    private void skipBom() {
+        while (limit - next < 3 && fillAhead() >= 0 && limit - next < 3) {
+            // fill up to the length of BOM
+        }
+        if (limit - next >= 3 &&
+            (byteAt(next) & 0xFF) == 0xEF && (byteAt(next + 1) & 0xFF) == 0xBB && (byteAt(next + 2) & 0xFF) == 0xBF) {
+            next += 3;
+        }
+    }
+
+}
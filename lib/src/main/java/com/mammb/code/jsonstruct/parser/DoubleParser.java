@@ -0,0 +1,203 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct.parser;
+
+import java.math.BigInteger;
+
+/**
+ * Conversion of a decimal significand and exponent to a binary floating-point number.
+ * Uses the exact fast path (Clinger) and the Eisel-Lemire algorithm.
+ * If the result can not be determined, {@code NaN} is returned and the caller falls back to the JDK.
+ * @author Naotsugu Kobayashi
+ */
+class DoubleParser {
+
+    /** The exact powers of ten as double. */
+    private static final double[] DOUBLE_POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    /** The exact powers of ten as float. */
+    private static final float[] FLOAT_POW10 = {
+        1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f };
+
+    /** The min exponent of the table of powers of ten. */
+    private static final int MIN_EXP10 = -348;
+
+    /** The max exponent of the table of powers of ten. */
+    private static final int MAX_EXP10 = 347;
+
+
+    /**
+     * Gets the double value of {@code significand * 10^exp10}.
+     * @param neg negative?
+     * @param significand the significand, as an unsigned long
+     * @param exp10 the exponent of ten
+     * @return the double value, or {@code NaN} if not determined
+     */
+    static double toDouble(boolean neg, long significand, int exp10) {
+        if (significand == 0) {
+            return neg ? -0.0 : 0.0;
+        }
+        if (significand > 0 && significand < (1L << 53) && exp10 >= -22 && exp10 <= 22) {
+            double d = (double) significand;
+            d = (exp10 < 0) ? d / DOUBLE_POW10[-exp10] : d * DOUBLE_POW10[exp10];
+            return neg ? -d : d;
+        }
+        return eiselLemire(neg, significand, exp10);
+    }
+
+
+    /**
+     * Gets the float value of {@code significand * 10^exp10}.
+     * @param neg negative?
+     * @param significand the significand, as an unsigned long
+     * @param exp10 the exponent of ten
+     * @return the float value, or {@code NaN} if not determined
+     */
+    static float toFloat(boolean neg, long significand, int exp10) {
+        if (significand == 0) {
+            return neg ? -0.0f : 0.0f;
+        }
+        if (significand > 0 && significand < (1L << 24) && exp10 >= -10 && exp10 <= 10) {
+            float f = (float) significand;
+            f = (exp10 < 0) ? f / FLOAT_POW10[-exp10] : f * FLOAT_POW10[exp10];
+            return neg ? -f : f;
+        }
+        return Float.NaN;
+    }
+
+
+    /**
+     * The Eisel-Lemire algorithm.
+     * @param neg negative?
+     * @param man the significand, as an unsigned long
+     * @param exp10 the exponent of ten
+     * @return the double value, or {@code NaN} if not determined
+     */
+    private static double eiselLemire(boolean neg, long man, int exp10) {
+
+        if (exp10 < MIN_EXP10 || exp10 > MAX_EXP10) {
+            return Double.NaN;
+        }
+
+        // normalization
+        int clz = Long.numberOfLeadingZeros(man);
+        man <<= clz;
+        long retExp2 = ((217706L * exp10) >> 16) + 64 + 1023 - clz;
+
+        // multiplication
+        long[] pow = Powers.TABLE;
+        int index = (exp10 - MIN_EXP10) << 1;
+        long powHi = pow[index];
+        long powLo = pow[index + 1];
+        long xHi = unsignedMultiplyHigh(man, powHi);
+        long xLo = man * powHi;
+
+        // wider approximation
+        if ((xHi & 0x1FF) == 0x1FF && Long.compareUnsigned(xLo + man, man) < 0) {
+            long yHi = unsignedMultiplyHigh(man, powLo);
+            long yLo = man * powLo;
+            long mergedHi = xHi;
+            long mergedLo = xLo + yHi;
+            if (Long.compareUnsigned(mergedLo, xLo) < 0) {
+                mergedHi++;
+            }
+            if ((mergedHi & 0x1FF) == 0x1FF && mergedLo + 1 == 0 && Long.compareUnsigned(yLo + man, man) < 0) {
+                return Double.NaN;
+            }
+            xHi = mergedHi;
+            xLo = mergedLo;
+        }
+
+        // shifting to 54 bits
+        long msb = xHi >>> 63;
+        long retMantissa = xHi >>> (msb + 9);
+        retExp2 -= 1 ^ msb;
+
+        // half-way ambiguity
+        if (xLo == 0 && (xHi & 0x1FF) == 0 && (retMantissa & 3) == 1) {
+            return Double.NaN;
+        }
+
+        // from 54 to 53 bits
+        retMantissa += retMantissa & 1;
+        retMantissa >>>= 1;
+        if ((retMantissa >>> 53) > 0) {
+            retMantissa >>>= 1;
+            retExp2 += 1;
+        }
+
+        // subnormal, infinity or NaN
+        if (Long.compareUnsigned(retExp2 - 1, 0x7FF - 1) >= 0) {
+            return Double.NaN;
+        }
+        long retBits = (retExp2 << 52) | (retMantissa & 0x000FFFFFFFFFFFFFL);
+        if (neg) {
+            retBits |= 0x8000000000000000L;
+        }
+        return Double.longBitsToDouble(retBits);
+    }
+
+
+    /**
+     * Gets the high 64 bits of the unsigned 128-bit product.
+     * @param x the first value
+     * @param y the second value
+     * @return the high 64 bits
+     */
+    private static long unsignedMultiplyHigh(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+
+    /**
+     * The 128-bit approximations of the powers of ten, normalized so that the highest bit is set.
+     * Loaded on the first use of the Eisel-Lemire algorithm.
+     */
+    private static class Powers {
+
+        /** The pairs of the high and low 64 bits. */
+        static final long[] TABLE = table();
+
+        private static long[] table() {
+            long[] table = new long[(MAX_EXP10 - MIN_EXP10 + 1) << 1];
+            BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+            for (int q = MIN_EXP10; q <= MAX_EXP10; q++) {
+                BigInteger m;
+                if (q >= 0) {
+                    BigInteger p = BigInteger.TEN.pow(q);
+                    int shift = p.bitLength() - 128;
+                    m = (shift > 0) ? p.shiftRight(shift) : p.shiftLeft(-shift);
+                } else {
+                    // the same mantissa as 5^q, generated as in the fast_float library
+                    BigInteger p = BigInteger.valueOf(5).pow(-q);
+                    int z = p.bitLength();
+                    int b = (q >= -27) ? z + 127 : 2 * z + 128;
+                    m = BigInteger.ONE.shiftLeft(b).divide(p).add(BigInteger.ONE);
+                    if (m.bitLength() > 128) {
+                        m = m.shiftRight(m.bitLength() - 128);
+                    }
+                }
+                int index = (q - MIN_EXP10) << 1;
+                table[index] = m.shiftRight(64).longValue();
+                table[index + 1] = m.and(mask).longValue();
+            }
+            return table;
+        }
+    }
+
+}
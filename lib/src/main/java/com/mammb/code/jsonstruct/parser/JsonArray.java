@@ -15,7 +15,9 @@
  */
 package com.mammb.code.jsonstruct.parser;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Iterator;
 
 /**
  * JsonArray.
@@ -49,9 +51,85 @@ public interface JsonArray extends JsonStructure, Iterable<JsonValue> {
     }
 
 
+    /**
+     * Create a new lazy JsonArray instance.
+     * @param source the source
+     * @param start the index just after the opening bracket
+     * @param end the index just after the closing bracket
+     * @return a new lazy JsonArray instance
+     */
+    static JsonArray lazy(String source, int start, int end) {
+        return new LazyJsonArray(source, start, end);
+    }
+
+
     /**
      * JsonArray implementation.
      */
     class JsonArrayImpl extends ArrayList<JsonValue> implements JsonArray { }
 
+
+    /**
+     * JsonArray implementation that parses the elements on the first access.
+     * The elements are published safely, so that a tree can be shared by threads for reading.
+     */
+    class LazyJsonArray extends AbstractList<JsonValue> implements JsonArray {
+
+        /** The source. */
+        private final String source;
+
+        /** The index just after the opening bracket. */
+        private final int start;
+
+        /** The index just after the closing bracket. */
+        private final int end;
+
+        /** The parsed array. */
+        private volatile JsonArray array;
+
+        private LazyJsonArray(String source, int start, int end) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+
+        private JsonArray array() {
+            JsonArray arr = array;
+            if (arr == null) {
+                synchronized (this) {
+                    arr = array;
+                    if (arr == null) {
+                        array = arr = Parser.ofLazy(source, start, end).parseArray(JsonArray.of());
+                    }
+                }
+            }
+            return arr;
+        }
+
+        @Override
+        public JsonValue get(int index) {
+            return array().get(index);
+        }
+
+        @Override
+        public boolean add(JsonValue value) {
+            return array().add(value);
+        }
+
+        @Override
+        public int size() {
+            return array().size();
+        }
+
+        @Override
+        public Iterator<JsonValue> iterator() {
+            return array().iterator();
+        }
+
+        @Override
+        public String toString() {
+            return array().toString();
+        }
+    }
+
 }
@@ -60,6 +60,16 @@ public interface JsonNumber extends JsonValue, NumberSource {
             return source.getBigDecimal();
         }
 
+        @Override
+        public double getDouble() {
+            return source.getDouble();
+        }
+
+        @Override
+        public float getFloat() {
+            return source.getFloat();
+        }
+
         @Override
         public String toString() {
             return source.toString();
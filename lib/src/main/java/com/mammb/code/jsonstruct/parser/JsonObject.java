@@ -15,6 +15,7 @@
  */
 package com.mammb.code.jsonstruct.parser;
 
+import java.util.AbstractMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
@@ -59,6 +60,18 @@ public interface JsonObject extends JsonStructure {
     }
 
 
+    /**
+     * Create a new lazy JsonObject instance.
+     * @param source the source
+     * @param start the index just after the opening bracket
+     * @param end the index just after the closing bracket
+     * @return a new lazy JsonObject instance
+     */
+    static JsonObject lazy(String source, int start, int end) {
+        return new LazyJsonObject(source, start, end);
+    }
+
+
     /**
      * JsonObject implementation.
      */
@@ -70,4 +83,73 @@ public interface JsonObject extends JsonStructure {
         }
     }
 
+
+    /**
+     * JsonObject implementation that parses the members on the first access.
+     * The members are published safely, so that a tree can be shared by threads for reading.
+     */
+    class LazyJsonObject extends AbstractMap<String, JsonValue> implements JsonObject {
+
+        /** The source. */
+        private final String source;
+
+        /** The index just after the opening bracket. */
+        private final int start;
+
+        /** The index just after the closing bracket. */
+        private final int end;
+
+        /** The parsed object. */
+        private volatile JsonObject object;
+
+        private LazyJsonObject(String source, int start, int end) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+
+        private JsonObject object() {
+            JsonObject obj = object;
+            if (obj == null) {
+                synchronized (this) {
+                    obj = object;
+                    if (obj == null) {
+                        object = obj = Parser.ofLazy(source, start, end).parseObject(JsonObject.of());
+                    }
+                }
+            }
+            return obj;
+        }
+
+        @Override
+        public JsonValue put(String name, JsonValue value) {
+            return object().put(name, value);
+        }
+
+        @Override
+        public JsonValue get(String name) {
+            return object().get(name);
+        }
+
+        @Override
+        public JsonValue get(Object key) {
+            return (key instanceof String name) ? object().get(name) : null;
+        }
+
+        @Override
+        public Set<Map.Entry<String, JsonValue>> entrySet() {
+            return object().entrySet();
+        }
+
+        @Override
+        public int size() {
+            return object().size();
+        }
+
+        @Override
+        public String toString() {
+            return object().toString();
+        }
+    }
+
 }
@@ -0,0 +1,657 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct.parser;
+
+import com.mammb.code.jsonstruct.lang.CharArray;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking push parser of UTF-8 encoded json.
+ * The json is fed in arbitrary chunks, which may be split anywhere, even in the middle of
+ * a string, a number, an escape sequence or a multibyte character.
+ * The chunks are tokenized as they are fed, without concatenation.
+ * When a root value is completed, the handler is called with a {@link PullParser}
+ * that reads the value from the tokens.
+ *
+ * <pre>{@code
+ *   JsonPushParser parser = JsonPushParser.of(p -> Json.of(Book.class).from(p));
+ *   parser.feed(chunk1);
+ *   parser.feed(chunk2);
+ *   parser.end();
+ * }</pre>
+ *
+ * A sequence of root values is allowed, e.g. {@code {...} {...}}.
+ * <p>
+ * A push parser created with {@link #ofElements(Consumer)} calls the handler for each element
+ * of root arrays instead, and holds only the tokens of the element being read,
+ * the same as {@code Json#streamArray}.
+ * @author Naotsugu Kobayashi
+ */
+public class JsonPushParser {
+
+    /** Between tokens. */
+    private static final int WS = 0;
+    /** In a string. */
+    private static final int STRING = 1;
+    /** Just after a backslash in a string. */
+    private static final int ESCAPE = 2;
+    /** In a unicode escape sequence. */
+    private static final int UNICODE = 3;
+    /** In a number. */
+    private static final int NUMBER = 4;
+    /** In a literal, {@code true}, {@code false}, {@code null} or the byte order mark. */
+    private static final int LITERAL = 5;
+
+    /** Outside of a root array. */
+    private static final int ROOT_OUT = 0;
+    /** Just after the open bracket of a root array. */
+    private static final int ROOT_FIRST = 1;
+    /** Just after an element of a root array. */
+    private static final int ROOT_SEPARATOR = 2;
+    /** Just after a comma of a root array. */
+    private static final int ROOT_VALUE = 3;
+
+    /** The byte order mark, as bytes. */
+    private static final String BOM = "\u00EF\u00BB\u00BF";
+
+    /** The handler of the completed root values. */
+    private final Consumer<PullParser> handler;
+
+    /** Whether the handler is called for each element of root arrays. */
+    private final boolean elements;
+
+    /** The chars of the token being read. */
+    private final CharArray ca;
+
+    /** The tokens of the root value being read. */
+    private final List<Token> tokens;
+
+    /** The parser of the completed root value. */
+    private final PullParser parser;
+
+    /** The replay of the tokens. */
+    private final TokenReplay replay;
+
+    /** The lexer state. */
+    private int state;
+
+    /** The depth of nesting. */
+    private int depth;
+
+    /** The state of the root array, used only for the elements. */
+    private int root;
+
+    /** The number of bytes fed. */
+    private long position;
+
+    /** The remaining bytes of the multibyte character being read. */
+    private int utf8Remaining;
+
+    /** The code point of the multibyte character being read. */
+    private int codePoint;
+
+    /** The min code point of the multibyte character being read. */
+    private int utf8Min;
+
+    /** The number of hex digits of the unicode escape sequence being read. */
+    private int unicodeCount;
+
+    /** The number of the number being read has a fraction part. */
+    private boolean frac;
+
+    /** The number of the number being read has an exponent part. */
+    private boolean exp;
+
+    /** The literal being read. */
+    private String literal;
+
+    /** The index of the next char of the literal. */
+    private int literalIndex;
+
+    /** The token of the literal being read, {@code null} for the byte order mark. */
+    private Token literalToken;
+
+
+    /**
+     * Constructor.
+     * @param handler the handler of the completed root values
+     * @param elements whether the handler is called for each element of root arrays
+     */
+    private JsonPushParser(Consumer<PullParser> handler, boolean elements) {
+        this.handler = handler;
+        this.elements = elements;
+        this.ca = CharArray.of(32);
+        this.tokens = new ArrayList<>();
+        this.replay = new TokenReplay(tokens);
+        this.parser = PullParser.of(replay);
+        this.state = WS;
+        this.root = ROOT_OUT;
+    }
+
+
+    /**
+     * Create a new JsonPushParser.
+     * The handler is called with a {@link PullParser} each time a root value is completed.
+     * The {@link PullParser} is valid only in the call of the handler.
+     * @param handler the handler of the completed root values
+     * @return a new JsonPushParser
+     */
+    public static JsonPushParser of(Consumer<PullParser> handler) {
+        return new JsonPushParser(handler, false);
+    }
+
+
+    /**
+     * Create a new JsonPushParser for the elements of root arrays.
+     * The handler is called with a {@link PullParser} each time an element of a root array is completed,
+     * and the tokens of the element are released, so that a large root array is read in constant memory.
+     * The {@link PullParser} is valid only in the call of the handler.
+     * @param handler the handler of the completed elements
+     * @return a new JsonPushParser
+     * @throws JsonParseException if a root value is not an array, when fed
+     */
+    public static JsonPushParser ofElements(Consumer<PullParser> handler) {
+        return new JsonPushParser(handler, true);
+    }
+
+
+    /**
+     * Feed a chunk of json.
+     * The bytes between the position and the limit of the buffer are read,
+     * and the position of the buffer is advanced to the limit.
+     * @param chunk the chunk of UTF-8 encoded json
+     * @throws JsonParseException if the json is malformed
+     */
+    public void feed(ByteBuffer chunk) {
+        if (chunk.hasArray()) {
+            int off = chunk.arrayOffset() + chunk.position();
+            feed(chunk.array(), off, chunk.remaining());
+            chunk.position(chunk.limit());
+        } else {
+            while (chunk.hasRemaining()) {
+                accept(chunk.get() & 0xFF);
+                position++;
+            }
+        }
+    }
+
+
+    /**
+     * Feed a chunk of json.
+     * @param bytes the bytes of UTF-8 encoded json
+     * @param off the offset of the chunk in the bytes
+     * @param len the length of the chunk
+     * @throws JsonParseException if the json is malformed
+     */
+    public void feed(byte[] bytes, int off, int len) {
+        int end = off + len;
+        for (int i = off; i < end; i++) {
+            if (state == STRING && utf8Remaining == 0) {
+                // bulk copy of the plain ascii chars
+                int j = i;
+                while (j < end && bytes[j] >= ' ' && bytes[j] != '"' && bytes[j] != '\\') {
+                    j++;
+                }
+                if (j > i) {
+                    ca.addAscii(bytes, i, j - i);
+                    position += j - i;
+                    i = j;
+                    if (i == end) break;
+                }
+            }
+            accept(bytes[i] & 0xFF);
+            position++;
+        }
+    }
+
+
+    /**
+     * Signals the end of json.
+     * @throws JsonParseException if the last root value is not completed
+     */
+    public void end() {
+        if (state == NUMBER) {
+            number();
+        }
+        if (state != WS || !tokens.isEmpty() || root != ROOT_OUT) {
+            throw new JsonParseException("Unexpected end of json. index:{}", position);
+        }
+    }
+
+
+    /**
+     * Accept a byte.
+     * @param b the byte
+     */
+    private void accept(int b) {
+        switch (state) {
+            case WS -> whitespace(b);
+            case STRING -> string(b);
+            case ESCAPE -> escape(b);
+            case UNICODE -> unicode(b);
+            case NUMBER -> {
+                if (b >= '0' && b <= '9' || b == '-' || b == '+') {
+                    ca.add((char) b);
+                } else if (b == '.') {
+                    frac = true;
+                    ca.add((char) b);
+                } else if (b == 'e' || b == 'E') {
+                    exp = true;
+                    ca.add((char) b);
+                } else {
+                    number();
+                    whitespace(b);
+                }
+            }
+            case LITERAL -> {
+                if (b != literal.charAt(literalIndex++)) throw syntaxError(b);
+                if (literalIndex == literal.length()) {
+                    state = WS;
+                    if (literalToken != null) add(literalToken);
+                }
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+
+
+    /**
+     * Accept a byte between tokens.
+     * @param b the byte
+     */
+    private void whitespace(int b) {
+        switch (b) {
+            case ' ', '\t', '\r', '\n' -> { }
+            case '{' -> add(Token.CURLY_OPEN);
+            case '[' -> add(Token.SQUARE_OPEN);
+            case '}' -> add(Token.CURLY_CLOSE);
+            case ']' -> add(Token.SQUARE_CLOSE);
+            case ':' -> add(Token.COLON);
+            case ',' -> add(Token.COMMA);
+            case '"' -> state = STRING;
+            case 't' -> literal("true", Token.TRUE);
+            case 'f' -> literal("false", Token.FALSE);
+            case 'n' -> literal("null", Token.NULL);
+            case '0','1','2','3','4','5','6','7','8','9','-' -> {
+                state = NUMBER;
+                frac = false;
+                exp = false;
+                ca.add((char) b);
+            }
+            case 0xEF -> {
+                if (position != 0) throw syntaxError(b);
+                literal(BOM, null);
+            }
+            default -> throw syntaxError(b);
+        }
+    }
+
+
+    /**
+     * Accept a byte in a string.
+     * @param b the byte
+     */
+    private void string(int b) {
+        if (utf8Remaining > 0) {
+            if ((b & 0xC0) == 0x80) {
+                codePoint = (codePoint << 6) | (b & 0x3F);
+                if (--utf8Remaining == 0) {
+                    if (codePoint < utf8Min || codePoint > 0x10FFFF ||
+                        (codePoint >= 0xD800 && codePoint <= 0xDFFF)) {
+                        ca.add('\uFFFD');
+                    } else if (codePoint >= 0x10000) {
+                        ca.add(Character.highSurrogate(codePoint));
+                        ca.add(Character.lowSurrogate(codePoint));
+                    } else {
+                        ca.add((char) codePoint);
+                    }
+                }
+                return;
+            }
+            // malformed sequence
+            utf8Remaining = 0;
+            ca.add('\uFFFD');
+        }
+        if (b == '"') {
+            state = WS;
+            add(Token.string(ca.popString()));
+        } else if (b == '\\') {
+            state = ESCAPE;
+        } else if (b < ' ') {
+            throw syntaxError(b);
+        } else if (b < 0x80) {
+            ca.add((char) b);
+        } else if (b >= 0xC2 && b <= 0xDF) {
+            multibyte(1, b & 0x1F, 0x80);
+        } else if (b >= 0xE0 && b <= 0xEF) {
+            multibyte(2, b & 0x0F, 0x800);
+        } else if (b >= 0xF0 && b <= 0xF4) {
+            multibyte(3, b & 0x07, 0x10000);
+        } else {
+            ca.add('\uFFFD');
+        }
+    }
+
+
+    /**
+     * Start a multibyte character.
+     * @param remaining the number of remaining bytes
+     * @param bits the bits of the leading byte
+     * @param min the min code point
+     */
+    private void multibyte(int remaining, int bits, int min) {
+        utf8Remaining = remaining;
+        codePoint = bits;
+        utf8Min = min;
+    }
+
+
+    /**
+     * Accept a byte just after a backslash.
+     * @param b the byte
+     */
+    private void escape(int b) {
+        state = STRING;
+        switch (b) {
+            case 'b' -> ca.add('\b');
+            case 't' -> ca.add('\t');
+            case 'n' -> ca.add('\n');
+            case 'f' -> ca.add('\f');
+            case 'r' -> ca.add('\r');
+            case '"', '\\', '/' -> ca.add((char) b);
+            case 'u' -> {
+                state = UNICODE;
+                codePoint = 0;
+                unicodeCount = 0;
+            }
+            default -> throw syntaxError(b);
+        }
+    }
+
+
+    /**
+     * Accept a byte in a unicode escape sequence.
+     * @param b the byte
+     */
+    private void unicode(int b) {
+        if (!HexFormat.isHexDigit(b)) throw syntaxError(b);
+        codePoint = (codePoint << 4) | HexFormat.fromHexDigit(b);
+        if (++unicodeCount == 4) {
+            ca.add((char) codePoint);
+            state = STRING;
+        }
+    }
+
+
+    /**
+     * Complete the number being read.
+     */
+    private void number() {
+        state = WS;
+        char[] chars = ca.popChars();
+        if (!isNumber(chars)) {
+            throw new JsonParseException("Illegal number. [{}] index:{}", new String(chars), position);
+        }
+        add(Token.number(chars, frac, exp));
+    }
+
+
+    /**
+     * Start a literal.
+     * @param literal the literal
+     * @param token the token of the literal, {@code null} if no token
+     */
+    private void literal(String literal, Token token) {
+        state = LITERAL;
+        this.literal = literal;
+        this.literalIndex = 1;
+        this.literalToken = token;
+    }
+
+
+    /**
+     * Add the token, and call the handler if a root value or an element of a root array is completed.
+     * @param token the token
+     */
+    private void add(Token token) {
+        if (elements && tokens.isEmpty() && !element(token)) {
+            return;
+        }
+        tokens.add(token);
+        switch (token.type) {
+            case CURLY_OPEN, SQUARE_OPEN -> depth++;
+            case CURLY_CLOSE, SQUARE_CLOSE -> depth--;
+            default -> { }
+        }
+        if (depth <= 0) {
+            // a malformed root value is reported by the pull parser
+            depth = 0;
+            try {
+                replay.rewind();
+                parser.reset();
+                handler.accept(parser);
+            } finally {
+                tokens.clear();
+            }
+        }
+    }
+
+
+    /**
+     * Accept a token between the elements of a root array.
+     * @param token the token
+     * @return {@code true} if the token starts an element
+     */
+    private boolean element(Token token) {
+        switch (root) {
+            case ROOT_OUT -> {
+                if (token.type != Token.Type.SQUARE_OPEN) {
+                    throw new JsonParseException("The root value is not an array. [{}] index:{}", token.type, position);
+                }
+                root = ROOT_FIRST;
+                return false;
+            }
+            case ROOT_FIRST -> {
+                if (token.type == Token.Type.SQUARE_CLOSE) {
+                    root = ROOT_OUT;
+                    return false;
+                }
+            }
+            case ROOT_SEPARATOR -> {
+                if (token.type == Token.Type.COMMA) {
+                    root = ROOT_VALUE;
+                } else if (token.type == Token.Type.SQUARE_CLOSE) {
+                    root = ROOT_OUT;
+                } else {
+                    throw new JsonParseException("Unexpected token. [{}] index:{}", token.type, position);
+                }
+                return false;
+            }
+            default -> { }
+        }
+        switch (token.type) {
+            case CURLY_CLOSE, SQUARE_CLOSE, COMMA, COLON ->
+                throw new JsonParseException("Unexpected token. [{}] index:{}", token.type, position);
+            default -> root = ROOT_SEPARATOR;
+        }
+        return true;
+    }
+
+
+    /**
+     * Gets whether the chars are a json number.
+     * @param chars the chars
+     * @return {@code true} if the chars are a json number
+     */
+    private static boolean isNumber(char[] chars) {
+        int i = 0;
+        int n = chars.length;
+        if (i < n && chars[i] == '-') i++;
+        if (i < n && chars[i] == '0') {
+            i++;
+        } else {
+            int start = i;
+            while (i < n && chars[i] >= '0' && chars[i] <= '9') i++;
+            if (i == start) return false;
+        }
+        if (i < n && chars[i] == '.') {
+            int start = ++i;
+            while (i < n && chars[i] >= '0' && chars[i] <= '9') i++;
+            if (i == start) return false;
+        }
+        if (i < n && (chars[i] == 'e' || chars[i] == 'E')) {
+            i++;
+            if (i < n && (chars[i] == '+' || chars[i] == '-')) i++;
+            int start = i;
+            while (i < n && chars[i] >= '0' && chars[i] <= '9') i++;
+            if (i == start) return false;
+        }
+        return i == n;
+    }
+
+
+    /**
+     * Create a JsonParseException.
+     * @param b the unexpected byte
+     * @return a JsonParseException
+     */
+    private JsonParseException syntaxError(int b) {
+        return new JsonParseException("Unexpected byte. [{}] index:{}", b, position);
+    }
+
+
+    /**
+     * The tokenizer that replays the tokens of a root value.
+     */
+    private static class TokenReplay extends Tokenizer {
+
+        /** The tokens. */
+        private final List<Token> tokens;
+
+        /** The index of the next token. */
+        private int index;
+
+
+        /**
+         * Constructor.
+         * @param tokens the tokens
+         */
+        TokenReplay(List<Token> tokens) {
+            super(null, null);
+            this.tokens = tokens;
+        }
+
+
+        /**
+         * Rewind to the first token.
+         */
+        void rewind() {
+            index = 0;
+        }
+
+
+        @Override
+        Token next() {
+            return (index < tokens.size()) ? tokens.get(index++) : Token.EOF;
+        }
+
+
+        @Override
+        Token nextKey() {
+            return next();
+        }
+
+
+        @Override
+        void skipStructure(int open) {
+            // the kinds of open brackets, a set bit for an object, the innermost in the lowest bit
+            long stack = (open == '{') ? 1 : 0;
+            // the kinds of open brackets beyond the depth of 64, from the outermost
+            boolean[] deep = null;
+            for (int depth = 1; depth > 0; ) {
+                Token t = next();
+                switch (t.type) {
+                    case CURLY_OPEN, SQUARE_OPEN -> {
+                        if (depth >= Long.SIZE) {
+                            if (deep == null || deep.length <= depth - Long.SIZE) {
+                                deep = (deep == null) ? new boolean[Long.SIZE] : Arrays.copyOf(deep, deep.length << 1);
+                            }
+                            deep[depth - Long.SIZE] = stack < 0;
+                        }
+                        stack = (stack << 1) | (t.type == Token.Type.CURLY_OPEN ? 1 : 0);
+                        depth++;
+                    }
+                    case CURLY_CLOSE, SQUARE_CLOSE -> {
+                        if (((stack & 1) != 0) != (t.type == Token.Type.CURLY_CLOSE)) {
+                            throw new JsonParseException("Unexpected token. [{}] index:{}", t.type, index);
+                        }
+                        stack >>>= 1;
+                        depth--;
+                        if (depth >= Long.SIZE && deep[depth - Long.SIZE]) {
+                            stack |= Long.MIN_VALUE;
+                        }
+                    }
+                    case EOF -> throw new JsonParseException("Unexpected end of json. index:{}", index);
+                    default -> { }
+                }
+            }
+        }
+
+
+        @Override
+        int skipValue() {
+            Token t = next();
+            return switch (t.type) {
+                case STRING -> '"';
+                case NUMBER -> '0';
+                case TRUE -> 't';
+                case FALSE -> 'f';
+                case NULL -> 'n';
+                case CURLY_OPEN -> {
+                    skipStructure('{');
+                    yield '{';
+                }
+                case SQUARE_OPEN -> {
+                    skipStructure('[');
+                    yield '[';
+                }
+                default -> throw new JsonParseException("Unexpected token. [{}] index:{}", t.type, index);
+            };
+        }
+
+
+        @Override
+        void reset() {
+        }
+
+
+        @Override
+        int position() {
+            return index;
+        }
+
+
+        @Override
+        void close() {
+        }
+    }
+
+}
@@ -44,4 +44,22 @@ public interface NumberSource extends CharSource {
      */
     BigDecimal getBigDecimal();
 
+
+    /**
+     * Gets this JSON number as a {@code double}.
+     * @return a {@code double} representation of the JSON number
+     */
+    default double getDouble() {
+        return Double.parseDouble(new String(chars()));
+    }
+
+
+    /**
+     * Gets this JSON number as a {@code float}.
+     * @return a {@code float} representation of the JSON number
+     */
+    default float getFloat() {
+        return Float.parseFloat(new String(chars()));
+    }
+
 }
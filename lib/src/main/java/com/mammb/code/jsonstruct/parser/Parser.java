@@ -31,6 +31,9 @@ public class Parser {
     /** Tokenizer. */
     private final Tokenizer tokenizer;
 
+    /** The source of lazy parsing, {@code null} if not lazy. */
+    private final String source;
+
     /** current token. */
     private Token curr;
 
@@ -43,7 +46,18 @@ public class Parser {
      * @param tokenizer the Tokenizer
      */
     private Parser(Tokenizer tokenizer) {
+        this(tokenizer, null);
+    }
+
+
+    /**
+     * Constructor.
+     * @param tokenizer the Tokenizer
+     * @param source the source of lazy parsing
+     */
+    private Parser(Tokenizer tokenizer, String source) {
         this.tokenizer = tokenizer;
+        this.source = source;
     }
 
 
@@ -68,6 +82,16 @@ public class Parser {
     }
 
 
+    /**
+     * Create a new Parser that shares the given tokenizer.
+     * @param tokenizer the Tokenizer
+     * @return a new Parser
+     */
+    static Parser of(Tokenizer tokenizer) {
+        return new Parser(tokenizer);
+    }
+
+
     /**
      * Create a new Parser.
      * @param cs the CharSequence
@@ -78,6 +102,32 @@ public class Parser {
     }
 
 
+    /**
+     * Create a new lazy Parser.
+     * The nested objects and arrays are not parsed until the first access,
+     * only the range of them in the source is recorded.
+     * The syntax of the nested structure is checked on the access.
+     * @param cs the CharSequence
+     * @return a new lazy Parser
+     */
+    public static Parser ofLazy(CharSequence cs) {
+        String source = cs.toString();
+        return new Parser(Tokenizer.of(StringReader.of(source)), source);
+    }
+
+
+    /**
+     * Create a new lazy Parser for the range of the source.
+     * @param source the source
+     * @param start the beginning index, inclusive
+     * @param end the ending index, exclusive
+     * @return a new lazy Parser
+     */
+    static Parser ofLazy(String source, int start, int end) {
+        return new Parser(Tokenizer.of(StringReader.of(source, start, end)), source);
+    }
+
+
     /**
      * Parses JSON and generates JsonStructure.
      * @return JsonStructure
@@ -102,17 +152,20 @@ public class Parser {
         Token name = null;
         for (;;) {
             prev = curr;
-            curr = tokenizer.next();
+            // a name is expected after the opening bracket or a comma
+            curr = (prev == null || prev.type == CURLY_OPEN || prev.type == COMMA)
+                ? tokenizer.nextKey()
+                : tokenizer.next();
             if (prev == null || prev.type != COLON) {
                 name = null;
             }
             switch (curr.type) {
                 case CURLY_OPEN ->
-                    keying(name, k -> obj.put(k, parseObject(JsonObject.of())));
+                    keying(name, k -> obj.put(k, nestedObject()));
                 case SQUARE_OPEN ->
-                    keying(name, k -> obj.put(k, parseArray(JsonArray.of())));
+                    keying(name, k -> obj.put(k, nestedArray()));
                 case NUMBER ->
-                    keying(name, k -> obj.put(k, JsonNumber.of((NumberSource) curr)));
+                    keying(name, k -> obj.put(k, (JsonNumber) curr));
                 case TRUE ->
                     keying(name, k -> obj.put(k, JsonValue.TRUE));
                 case FALSE ->
@@ -121,7 +174,7 @@ public class Parser {
                     keying(name, k -> obj.put(k, JsonValue.NULL));
                 case STRING -> {
                     if (name != null)
-                        keying(name, k -> obj.put(k, JsonString.of((CharSource) curr)));
+                        keying(name, k -> obj.put(k, (JsonString) curr));
                 }
                 case COLON -> {
                     if (prev != null && prev.type == STRING) name = prev;
@@ -153,13 +206,13 @@ public class Parser {
             curr = tokenizer.next();
             switch (curr.type) {
                 case CURLY_OPEN ->
-                    array.add(parseObject(JsonObject.of()));
+                    array.add(nestedObject());
                 case SQUARE_OPEN ->
-                    array.add(parseArray(JsonArray.of()));
+                    array.add(nestedArray());
                 case STRING ->
-                    array.add(JsonString.of((CharSource) curr));
+                    array.add((JsonString) curr);
                 case NUMBER ->
-                    array.add(JsonNumber.of((NumberSource) curr));
+                    array.add((JsonNumber) curr);
                 case TRUE ->
                     array.add(JsonValue.TRUE);
                 case FALSE ->
@@ -181,6 +234,36 @@ public class Parser {
     }
 
 
+    /**
+     * Parse the nested object, or skip it if lazy.
+     * @return JsonObject
+     */
+    private JsonObject nestedObject() {
+        if (source == null) {
+            return parseObject(JsonObject.of());
+        }
+        int start = tokenizer.position();
+        tokenizer.skipStructure('{');
+        curr = Token.CURLY_CLOSE;
+        return JsonObject.lazy(source, start, tokenizer.position());
+    }
+
+
+    /**
+     * Parse the nested array, or skip it if lazy.
+     * @return JsonArray
+     */
+    private JsonArray nestedArray() {
+        if (source == null) {
+            return parseArray(JsonArray.of());
+        }
+        int start = tokenizer.position();
+        tokenizer.skipStructure('[');
+        curr = Token.SQUARE_CLOSE;
+        return JsonArray.lazy(source, start, tokenizer.position());
+    }
+
+
     /**
      * Apply key
      * @param name the name token
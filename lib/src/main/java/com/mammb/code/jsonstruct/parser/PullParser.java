@@ -0,0 +1,594 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct.parser;
+
+import com.mammb.code.jsonstruct.lang.CharArray;
+import com.mammb.code.jsonstruct.lang.CharReader;
+import com.mammb.code.jsonstruct.lang.StringReader;
+import java.io.Closeable;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Pull parser.
+ * Reads json as a sequence of events without building a tree.
+ *
+ * <pre>{@code
+ *   PullParser parser = PullParser.of(reader);
+ *   while (parser.hasNext()) {
+ *       switch (parser.next()) {
+ *           case KEY_NAME -> parser.getName();
+ *           case VALUE_STRING -> parser.getString();
+ *           ...
+ *       }
+ *   }
+ * }</pre>
+ *
+ * @author Naotsugu Kobayashi
+ */
+public class PullParser implements Closeable {
+
+    /** Expect a value. */
+    private static final int VALUE = 0;
+    /** Expect a first element or {@code ]}. */
+    private static final int ARRAY_FIRST = 1;
+    /** Expect a first name or {@code }}. */
+    private static final int OBJECT_FIRST = 2;
+    /** Expect a name. */
+    private static final int NAME = 3;
+    /** Expect a colon. */
+    private static final int COLON = 4;
+    /** Expect a comma or close. */
+    private static final int AFTER_VALUE = 5;
+
+    /** Tokenizer. */
+    private final Tokenizer tokenizer;
+
+    /** The stack of containers, {@code true} if object. */
+    private boolean[] stack;
+
+    /** The depth of nesting. */
+    private int depth;
+
+    /** The parsing state. */
+    private int state;
+
+    /** The current event. */
+    private Event event;
+
+    /** The current token. */
+    private Token token;
+
+    /** The token read ahead by {@link #hasNext()}. */
+    private Token peeked;
+
+    /** The current name. */
+    private String name;
+
+
+    /**
+     * Event of pull parser.
+     */
+    public enum Event {
+        /** start of a json object {@code `{`}. */
+        START_OBJECT,
+        /** end of a json object {@code `}`}. */
+        END_OBJECT,
+        /** start of a json array {@code `[`}. */
+        START_ARRAY,
+        /** end of a json array {@code `]`}. */
+        END_ARRAY,
+        /** name in a name/value pair of a json object. */
+        KEY_NAME,
+        /** string value. */
+        VALUE_STRING,
+        /** number value. */
+        VALUE_NUMBER,
+        /** true value. */
+        VALUE_TRUE,
+        /** false value. */
+        VALUE_FALSE,
+        /** null value. */
+        VALUE_NULL,
+    }
+
+
+    /**
+     * Constructor.
+     * @param tokenizer the Tokenizer
+     */
+    private PullParser(Tokenizer tokenizer) {
+        this.tokenizer = tokenizer;
+        this.stack = new boolean[16];
+        this.depth = 0;
+        this.state = VALUE;
+    }
+
+
+    /**
+     * Create a new PullParser.
+     * @param reader the Reader
+     * @return a new PullParser
+     */
+    public static PullParser of(CharReader reader) {
+        return new PullParser(Tokenizer.of(reader));
+    }
+
+
+    /**
+     * Create a new PullParser.
+     * @param reader the Reader
+     * @param ca the CharArray
+     * @return a new PullParser
+     */
+    public static PullParser of(CharReader reader, CharArray ca) {
+        return new PullParser(Tokenizer.of(reader, ca));
+    }
+
+
+    /**
+     * Create a new PullParser.
+     * @param tokenizer the Tokenizer
+     * @return a new PullParser
+     */
+    static PullParser of(Tokenizer tokenizer) {
+        return new PullParser(tokenizer);
+    }
+
+
+    /**
+     * Create a new PullParser.
+     * @param cs the CharSequence
+     * @return a new PullParser
+     */
+    public static PullParser of(CharSequence cs) {
+        return new PullParser(Tokenizer.of(new StringReader(cs.toString())));
+    }
+
+
+    /**
+     * Gets whether there are more parsing events.
+     * A sequence of root values is allowed, e.g. {@code {...} {...}}.
+     * @return {@code true} if there are more parsing events
+     */
+    public boolean hasNext() {
+        if (depth > 0) {
+            return true;
+        }
+        if (peeked == null) {
+            peeked = tokenizer.next();
+        }
+        return peeked.type != Token.Type.EOF;
+    }
+
+
+    /**
+     * Gets the next parsing event.
+     * @return the next parsing event
+     * @throws NoSuchElementException if there are no more parsing events
+     * @throws JsonParseException if the json is malformed
+     */
+    public Event next() {
+
+        Token t = nextToken(state == OBJECT_FIRST || state == NAME);
+
+        switch (state) {
+            case VALUE -> event = value(t);
+            case ARRAY_FIRST -> event = (t.type == Token.Type.SQUARE_CLOSE) ? close(t) : value(t);
+            case OBJECT_FIRST -> event = (t.type == Token.Type.CURLY_CLOSE) ? close(t) : name(t);
+            case NAME -> event = name(t);
+            case COLON -> {
+                if (t.type != Token.Type.COLON) throw unexpected(t);
+                event = value(nextToken());
+            }
+            case AFTER_VALUE -> {
+                if (t.type == Token.Type.COMMA) {
+                    if (stack[depth - 1]) {
+                        event = name(nextToken(true));
+                    } else {
+                        event = value(nextToken());
+                    }
+                } else {
+                    event = close(t);
+                }
+            }
+            default -> throw new IllegalStateException();
+        }
+        return event;
+    }
+
+
+    /**
+     * Moves the parser to the start of a value.
+     * If the current event already points a value, the parser does not move.
+     * If the current event is {@link Event#KEY_NAME}, the parser advances to the value of the name.
+     * Otherwise, the parser advances to the next value.
+     * @return {@code true} if the parser points a value, {@code false} if no more values
+     */
+    public boolean seekValue() {
+        if (event != null && event != Event.KEY_NAME &&
+            event != Event.END_OBJECT && event != Event.END_ARRAY) {
+            return true;
+        }
+        if (depth == 0 && !hasNext()) {
+            return false;
+        }
+        Event e = next();
+        if (e == Event.KEY_NAME) {
+            e = next();
+        }
+        return e != Event.END_OBJECT && e != Event.END_ARRAY;
+    }
+
+
+    /**
+     * Gets the current event.
+     * @return the current event, {@code null} if {@link #next()} has not been called yet
+     */
+    public Event currentEvent() {
+        return event;
+    }
+
+
+    /**
+     * Gets the current depth of nesting.
+     * The depth of a root object is {@code 1} at {@link Event#START_OBJECT}.
+     * @return the current depth of nesting
+     */
+    public int depth() {
+        return depth;
+    }
+
+
+    /**
+     * Gets the current name.
+     * The name is kept while reading the value of the name.
+     * @return the current name
+     */
+    public String getName() {
+        return name;
+    }
+
+
+    /**
+     * Gets the string of the current value.
+     * Available in {@link Event#KEY_NAME}, {@link Event#VALUE_STRING} and {@link Event#VALUE_NUMBER}.
+     * @return the string of the current value
+     */
+    public String getString() {
+        return switch (event) {
+            case KEY_NAME -> name;
+            case VALUE_STRING, VALUE_NUMBER -> current().toString();
+            default -> throw new IllegalStateException("Illegal event.[" + event + "]");
+        };
+    }
+
+
+    /**
+     * Gets the current value as an {@code int}.
+     * @return the current value as an {@code int}
+     */
+    public int getInt() {
+        return asNumber().getInt();
+    }
+
+
+    /**
+     * Gets the current value as a {@code long}.
+     * @return the current value as a {@code long}
+     */
+    public long getLong() {
+        return asNumber().getLong();
+    }
+
+
+    /**
+     * Gets the current value as a {@code BigDecimal}.
+     * @return the current value as a {@code BigDecimal}
+     */
+    public BigDecimal getBigDecimal() {
+        return asNumber().getBigDecimal();
+    }
+
+
+    /**
+     * Gets the current value as a {@code boolean}.
+     * @return the current value as a {@code boolean}
+     */
+    public boolean getBoolean() {
+        return switch (event) {
+            case VALUE_TRUE -> true;
+            case VALUE_FALSE -> false;
+            default -> throw new IllegalStateException("Illegal event.[" + event + "]");
+        };
+    }
+
+
+    /**
+     * Gets the current value as a {@link JsonValue}.
+     * If the current event is {@link Event#START_OBJECT} or {@link Event#START_ARRAY},
+     * the whole structure is read and the parser advances to the end of it.
+     * @return the current value
+     */
+    public JsonValue getValue() {
+        return switch (event) {
+            case VALUE_STRING, VALUE_NUMBER -> (JsonValue) current();
+            case VALUE_TRUE -> JsonValue.TRUE;
+            case VALUE_FALSE -> JsonValue.FALSE;
+            case VALUE_NULL -> JsonValue.NULL;
+            case START_OBJECT -> {
+                JsonObject obj = Parser.of(tokenizer).parseObject(JsonObject.of());
+                close(Token.CURLY_CLOSE);
+                event = Event.END_OBJECT;
+                yield obj;
+            }
+            case START_ARRAY -> {
+                JsonArray array = Parser.of(tokenizer).parseArray(JsonArray.of());
+                close(Token.SQUARE_CLOSE);
+                event = Event.END_ARRAY;
+                yield array;
+            }
+            default -> throw new IllegalStateException("Illegal event.[" + event + "]");
+        };
+    }
+
+
+    /**
+     * Skips the children of the current structure.
+     * If the current event is {@link Event#START_OBJECT} or {@link Event#START_ARRAY},
+     * the parser advances to the corresponding end event. Otherwise, do nothing.
+     * The skipped children are not tokenized. Brackets must be paired, and strings, numbers and
+     * literals must be well-formed, but the order of names, values, colons and commas is not checked.
+     */
+    public void skipChildren() {
+        if (event == Event.START_OBJECT) {
+            tokenizer.skipStructure('{');
+            event = close(Token.CURLY_CLOSE);
+        } else if (event == Event.START_ARRAY) {
+            tokenizer.skipStructure('[');
+            event = close(Token.SQUARE_CLOSE);
+        }
+    }
+
+
+    /**
+     * Skips the current value.
+     * If the current event is {@link Event#KEY_NAME}, the value of the name is skipped,
+     * and the current event becomes the event of the skipped value, {@link Event#END_OBJECT} or
+     * {@link Event#END_ARRAY} for a structure. The skipped value itself is not available,
+     * and the value accessors throw {@link IllegalStateException}.
+     * If the current event is {@link Event#START_OBJECT} or {@link Event#START_ARRAY},
+     * same as {@link #skipChildren()}. Otherwise, do nothing.
+     */
+    public void skipValue() {
+        if (event != Event.KEY_NAME) {
+            skipChildren();
+            return;
+        }
+        Token t = nextToken();
+        if (t.type != Token.Type.COLON) throw unexpected(t);
+        int ch = tokenizer.skipValue();
+        token = null;
+        state = afterValue();
+        event = switch (ch) {
+            case '"' -> Event.VALUE_STRING;
+            case '{' -> Event.END_OBJECT;
+            case '[' -> Event.END_ARRAY;
+            case 't' -> Event.VALUE_TRUE;
+            case 'f' -> Event.VALUE_FALSE;
+            case 'n' -> Event.VALUE_NULL;
+            default  -> Event.VALUE_NUMBER;
+        };
+    }
+
+
+    /**
+     * Resets the parser state to read a next root value.
+     * Used to continue reading from the underlying reader after an error.
+     */
+    public void reset() {
+        tokenizer.reset();
+        depth = 0;
+        state = VALUE;
+        event = null;
+        token = null;
+        peeked = null;
+        name = null;
+    }
+
+
+    /**
+     * Gets the position of the underlying reader.
+     * @return the position
+     */
+    public int getPosition() {
+        return tokenizer.position();
+    }
+
+
+    @Override
+    public void close() {
+        tokenizer.close();
+    }
+
+
+    /**
+     * Read the next token.
+     * @return the next token
+     */
+    private Token nextToken() {
+        return nextToken(false);
+    }
+
+
+    /**
+     * Read the next token.
+     * @param key {@code true} if an object key is expected
+     * @return the next token
+     */
+    private Token nextToken(boolean key) {
+        Token t = peeked;
+        if (t != null) {
+            peeked = null;
+        } else {
+            t = key ? tokenizer.nextKey() : tokenizer.next();
+        }
+        if (t.type == Token.Type.EOF) {
+            if (depth == 0 && state == VALUE) {
+                throw new NoSuchElementException();
+            }
+            throw unexpected(t);
+        }
+        return t;
+    }
+
+
+    /**
+     * Handle the value token.
+     * @param t the token
+     * @return the event
+     */
+    private Event value(Token t) {
+        token = t;
+        switch (t.type) {
+            case CURLY_OPEN -> {
+                push(true);
+                state = OBJECT_FIRST;
+                return Event.START_OBJECT;
+            }
+            case SQUARE_OPEN -> {
+                push(false);
+                state = ARRAY_FIRST;
+                return Event.START_ARRAY;
+            }
+            case STRING -> {
+                state = afterValue();
+                return Event.VALUE_STRING;
+            }
+            case NUMBER -> {
+                state = afterValue();
+                return Event.VALUE_NUMBER;
+            }
+            case TRUE -> {
+                state = afterValue();
+                return Event.VALUE_TRUE;
+            }
+            case FALSE -> {
+                state = afterValue();
+                return Event.VALUE_FALSE;
+            }
+            case NULL -> {
+                state = afterValue();
+                return Event.VALUE_NULL;
+            }
+            default -> throw unexpected(t);
+        }
+    }
+
+
+    /**
+     * Handle the name token.
+     * @param t the token
+     * @return the event
+     */
+    private Event name(Token t) {
+        if (t.type != Token.Type.STRING) {
+            throw unexpected(t);
+        }
+        token = t;
+        name = t.toString();
+        state = COLON;
+        return Event.KEY_NAME;
+    }
+
+
+    /**
+     * Handle the close token.
+     * @param t the token
+     * @return the event
+     */
+    private Event close(Token t) {
+        if (depth == 0) {
+            throw unexpected(t);
+        }
+        boolean obj = stack[depth - 1];
+        if (obj && t.type != Token.Type.CURLY_CLOSE || !obj && t.type != Token.Type.SQUARE_CLOSE) {
+            throw unexpected(t);
+        }
+        depth--;
+        token = t;
+        state = afterValue();
+        return obj ? Event.END_OBJECT : Event.END_ARRAY;
+    }
+
+
+    /**
+     * Gets the state after a value.
+     * @return the state after a value
+     */
+    private int afterValue() {
+        return (depth == 0) ? VALUE : AFTER_VALUE;
+    }
+
+
+    /**
+     * Push the container.
+     * @param obj {@code true} if object
+     */
+    private void push(boolean obj) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth << 1);
+        }
+        stack[depth++] = obj;
+    }
+
+
+    /**
+     * Gets the current token as a number.
+     * @return the number
+     */
+    private NumberSource asNumber() {
+        if (event != Event.VALUE_NUMBER) {
+            throw new IllegalStateException("Illegal event.[" + event + "]");
+        }
+        return (NumberSource) current();
+    }
+
+
+    /**
+     * Gets the token of the current value.
+     * @return the token of the current value
+     * @throws IllegalStateException if the current value has been skipped
+     */
+    private Token current() {
+        if (token == null) {
+            throw new IllegalStateException("Value skipped.[" + event + "]");
+        }
+        return token;
+    }
+
+
+    /**
+     * Create a JsonParseException.
+     * @param t the unexpected token
+     * @return a JsonParseException
+     */
+    private JsonParseException unexpected(Token t) {
+        return new JsonParseException("Unexpected token. [{}] index:{}", t.type, tokenizer.position());
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct.parser;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * The structural index of UTF-8 json.
+ * Finds the positions of the structural characters {@code {}[]:,} outside strings,
+ * and the positions of the unescaped quotes.
+ * The bytes are classified 64 at a time into bit masks, 8 bytes in a word (SWAR).
+ * @author Naotsugu Kobayashi
+ */
+class StructuralIndex {
+
+    /** The view of byte array as long. */
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /** The low 7 bits of each byte. */
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+
+    /** The odd bits. */
+    private static final long ODD_BITS = 0xAAAAAAAAAAAAAAAAL;
+
+    /** The pattern of {@code "}. */
+    private static final long QUOTE = repeat('"');
+
+    /** The pattern of {@code \}. */
+    private static final long BACKSLASH = repeat('\\');
+
+    /** The pattern of {@code {} and {@code [} with the bit {@code 0x20} set. */
+    private static final long OPEN = repeat('{');
+
+    /** The pattern of {@code }} and {@code ]} with the bit {@code 0x20} set. */
+    private static final long CLOSE = repeat('}');
+
+    /** The pattern of {@code :}. */
+    private static final long COLON = repeat(':');
+
+    /** The pattern of {@code ,}. */
+    private static final long COMMA = repeat(',');
+
+    /** The pattern of the bit {@code 0x20}. */
+    private static final long CASE = repeat(0x20);
+
+    /** The pattern of the bits that must be zero for control characters. */
+    private static final long CONTROL = repeat(0xE0);
+
+    /** The positions of the structural characters. */
+    private int[] positions;
+
+    /** The number of positions. */
+    private int count;
+
+
+    /**
+     * Constructor.
+     * @param positions the positions of the structural characters
+     * @param count the number of positions
+     */
+    private StructuralIndex(int[] positions, int count) {
+        this.positions = positions;
+        this.count = count;
+    }
+
+
+    /**
+     * Build the structural index.
+     * @param buf the UTF-8 encoded json
+     * @param off the offset of json
+     * @param end the end of json, exclusive
+     * @return the structural index
+     */
+    static StructuralIndex of(byte[] buf, int off, int end) {
+
+        StructuralIndex index = new StructuralIndex(new int[Math.max(16, (end - off) >> 3)], 0);
+        byte[] tail = new byte[64];
+
+        long nextIsEscaped = 0;
+        long prevInString = 0;
+
+        for (int block = off; block < end; block += 64) {
+
+            byte[] b = buf;
+            int base = block;
+            if (block + 64 > end) {
+                Arrays.fill(tail, (byte) ' ');
+                System.arraycopy(buf, block, tail, 0, end - block);
+                b = tail;
+                base = 0;
+            }
+
+            long quote = 0;
+            long backslash = 0;
+            long op = 0;
+            long control = 0;
+            for (int k = 0; k < 8; k++) {
+                long w = (long) LONG.get(b, base + (k << 3));
+                long lower = w | CASE;
+                int shift = k << 3;
+                quote     |= movemask(eq(w, QUOTE)) << shift;
+                backslash |= movemask(eq(w, BACKSLASH)) << shift;
+                op        |= movemask(eq(lower, OPEN) | eq(lower, CLOSE) | eq(w, COLON) | eq(w, COMMA)) << shift;
+                control   |= movemask(eq(w & CONTROL, 0)) << shift;
+            }
+
+            // the characters escaped by a backslash, odd length of backslashes escapes the next
+            long escapeAndTerminal = escapeAndTerminalCode(backslash & ~nextIsEscaped);
+            long escaped = escapeAndTerminal ^ (backslash | nextIsEscaped);
+            nextIsEscaped = (escapeAndTerminal & backslash) >>> 63;
+
+            quote &= ~escaped;
+            long inString = prefixXor(quote) ^ prevInString;
+            prevInString = inString >> 63;
+
+            if ((control & inString) != 0) {
+                int pos = block + Long.numberOfTrailingZeros(control & inString);
+                throw new JsonParseException("Unexpected control char. index:{}", pos - off);
+            }
+            index.add(block, (op & ~inString) | quote);
+        }
+
+        if (prevInString != 0) {
+            throw new JsonParseException("Unterminated string. index:{}", end - off);
+        }
+        return index;
+    }
+
+
+    /**
+     * Gets the position at the specified index.
+     * @param i the index
+     * @return the position
+     */
+    int get(int i) {
+        return positions[i];
+    }
+
+
+    /**
+     * Gets the number of positions.
+     * @return the number of positions
+     */
+    int size() {
+        return count;
+    }
+
+
+    /**
+     * Add the positions of bits.
+     * @param base the base position
+     * @param bits the bits
+     */
+    private void add(int base, long bits) {
+        int n = Long.bitCount(bits);
+        if (count + n > positions.length) {
+            positions = Arrays.copyOf(positions, Math.max(count + n, positions.length << 1));
+        }
+        while (bits != 0) {
+            positions[count++] = base + Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+        }
+    }
+
+
+    /**
+     * Gets the word that has the high bit set in each byte equal to the pattern.
+     * @param w the word
+     * @param pattern the pattern
+     * @return the word of high bits
+     */
+    private static long eq(long w, long pattern) {
+        long x = w ^ pattern;
+        long t = (x & LOW7) + LOW7;
+        return ~(t | x | LOW7);
+    }
+
+
+    /**
+     * Gathers the high bits of each byte into the low 8 bits.
+     * @param highBits the word of high bits
+     * @return the mask
+     */
+    private static long movemask(long highBits) {
+        return ((highBits >>> 7) * 0x0102040810204080L) >>> 56;
+    }
+
+
+    /**
+     * Gets the code which bits are set at the escape characters and at the escaped characters.
+     * @param potentialEscape the backslashes not escaped by the previous block
+     * @return the escape and terminal code
+     */
+    private static long escapeAndTerminalCode(long potentialEscape) {
+        long maybeEscaped = potentialEscape << 1;
+        long maybeEscapedAndOddBits = maybeEscaped | ODD_BITS;
+        long evenSeriesCodesAndOddBits = maybeEscapedAndOddBits - potentialEscape;
+        return evenSeriesCodesAndOddBits ^ ODD_BITS;
+    }
+
+
+    /**
+     * Gets the prefix xor, the bits between the pairs of bits are set.
+     * @param bits the bits
+     * @return the prefix xor
+     */
+    private static long prefixXor(long bits) {
+        bits ^= bits << 1;
+        bits ^= bits << 2;
+        bits ^= bits << 4;
+        bits ^= bits << 8;
+        bits ^= bits << 16;
+        bits ^= bits << 32;
+        return bits;
+    }
+
+
+    /**
+     * Gets the word that repeats the byte.
+     * @param b the byte
+     * @return the word
+     */
+    private static long repeat(int b) {
+        return (b & 0xFFL) * 0x0101010101010101L;
+    }
+
+}
@@ -0,0 +1,690 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct.parser;
+
+import com.mammb.code.jsonstruct.lang.Utf8Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tape parser.
+ * Parses UTF-8 json in two stages.
+ * The first stage finds all structural characters in bulk ({@link StructuralIndex}).
+ * The second stage walks the structural index and writes a flat tape.
+ * The returned {@link JsonStructure} is a view of the tape,
+ * strings and numbers are decoded on access.
+ *
+ * <pre>{@code
+ *   JsonStructure json = TapeParser.of(bytes).parse();
+ *   JsonValue value = json.at("/foo/0/bar");
+ * }</pre>
+ *
+ * @author Naotsugu Kobayashi
+ */
+public class TapeParser {
+
+    /** Tape type of object start. The payload is the tape index after the object end. */
+    private static final int OBJECT = '{';
+    /** Tape type of object end. The payload is the tape index of the object start. */
+    private static final int OBJECT_END = '}';
+    /** Tape type of array start. The payload is the tape index after the array end. */
+    private static final int ARRAY = '[';
+    /** Tape type of array end. The payload is the tape index of the array start. */
+    private static final int ARRAY_END = ']';
+    /** Tape type of string. The payload is the offset, and the next word is the length. */
+    private static final int STRING = '"';
+    /** Tape type of number. The payload is the offset, and the next word is the length and flags. */
+    private static final int NUMBER = 'n';
+    /** Tape type of true. */
+    private static final int TRUE = 't';
+    /** Tape type of false. */
+    private static final int FALSE = 'f';
+    /** Tape type of null. */
+    private static final int NULL = '0';
+
+    /** The flag of number with fraction. */
+    private static final int FRAC = 1;
+    /** The flag of number with exponent. */
+    private static final int EXP = 2;
+
+    /** Expect a first element or {@code ]}. */
+    private static final int ARRAY_FIRST = 0;
+    /** Expect a first name or {@code }}. */
+    private static final int OBJECT_FIRST = 1;
+    /** Expect a name. */
+    private static final int NAME = 2;
+    /** Expect a value. */
+    private static final int VALUE = 3;
+    /** Expect a comma or close. */
+    private static final int AFTER_VALUE = 4;
+
+    /** The UTF-8 encoded json. */
+    private final byte[] buf;
+
+    /** The offset of json. */
+    private final int off;
+
+    /** The end of json, exclusive. */
+    private final int end;
+
+    /** The structural index. */
+    private StructuralIndex index;
+
+    /** The next index of the structural index. */
+    private int next;
+
+    /** The tape. */
+    private long[] tape;
+
+    /** The size of tape. */
+    private int size;
+
+
+    /**
+     * Constructor.
+     * @param buf the UTF-8 encoded json
+     * @param off the offset of json
+     * @param end the end of json, exclusive
+     */
+    private TapeParser(byte[] buf, int off, int end) {
+        this.buf = buf;
+        this.off = off;
+        this.end = end;
+    }
+
+
+    /**
+     * Create a new TapeParser.
+     * @param bytes the UTF-8 encoded json
+     * @return a new TapeParser
+     */
+    public static TapeParser of(byte[] bytes) {
+        return new TapeParser(bytes, 0, bytes.length);
+    }
+
+
+    /**
+     * Create a new TapeParser.
+     * @param bytes the UTF-8 encoded json
+     * @param off the offset of json
+     * @param len the length of json
+     * @return a new TapeParser
+     */
+    public static TapeParser of(byte[] bytes, int off, int len) {
+        if (off < 0 || len < 0 || off + len > bytes.length) {
+            throw new IndexOutOfBoundsException(off + len);
+        }
+        return new TapeParser(bytes, off, off + len);
+    }
+
+
+    /**
+     * Create a new TapeParser.
+     * @param cs the CharSequence
+     * @return a new TapeParser
+     */
+    public static TapeParser of(CharSequence cs) {
+        return of(cs.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    /**
+     * Parses JSON and generates JsonStructure.
+     * @return JsonStructure, {@code null} if empty
+     */
+    public JsonStructure parse() {
+
+        index = StructuralIndex.of(buf, off, end);
+        tape = new long[Math.max(16, index.size() + (index.size() >> 1))];
+        size = 0;
+        next = 0;
+
+        if (index.size() == 0) {
+            requireWhitespace(off, end);
+            return null;
+        }
+
+        int q = index.get(next++);
+        requireWhitespace(off, q);
+        int state = switch (buf[q]) {
+            case '{' -> OBJECT_FIRST;
+            case '[' -> ARRAY_FIRST;
+            default -> throw unexpected(q);
+        };
+
+        int[] stack = new int[16];
+        int depth = 0;
+        stack[depth++] = open(buf[q] == '{' ? OBJECT : ARRAY);
+        int prev = q;
+
+        while (depth > 0) {
+            switch (state) {
+                case OBJECT_FIRST, NAME -> {
+                    q = nextStructural(prev);
+                    if (buf[q] == '}' && state == OBJECT_FIRST) {
+                        close(OBJECT_END, stack[--depth]);
+                        prev = q;
+                        state = AFTER_VALUE;
+                    } else if (buf[q] == '"') {
+                        prev = string(q);
+                        q = nextStructural(prev);
+                        if (buf[q] != ':') throw unexpected(q);
+                        prev = q;
+                        state = VALUE;
+                    } else {
+                        throw unexpected(q);
+                    }
+                }
+                case ARRAY_FIRST, VALUE -> {
+                    int start = skipWhitespace(prev + 1);
+                    int peek = (next < index.size()) ? index.get(next) : end;
+                    if (start == peek && start < end) {
+                        next++;
+                        switch (buf[start]) {
+                            case '"' -> {
+                                prev = string(start);
+                                state = AFTER_VALUE;
+                            }
+                            case '{', '[' -> {
+                                if (depth == stack.length) stack = Arrays.copyOf(stack, depth << 1);
+                                stack[depth++] = open(buf[start] == '{' ? OBJECT : ARRAY);
+                                prev = start;
+                                state = (buf[start] == '{') ? OBJECT_FIRST : ARRAY_FIRST;
+                            }
+                            case ']' -> {
+                                if (state != ARRAY_FIRST) throw unexpected(start);
+                                close(ARRAY_END, stack[--depth]);
+                                prev = start;
+                                state = AFTER_VALUE;
+                            }
+                            default -> throw unexpected(start);
+                        }
+                    } else {
+                        prev = scalar(start, peek);
+                        state = AFTER_VALUE;
+                    }
+                }
+                case AFTER_VALUE -> {
+                    q = nextStructural(prev);
+                    boolean obj = type(stack[depth - 1]) == OBJECT;
+                    if (buf[q] == ',') {
+                        state = obj ? NAME : VALUE;
+                    } else if (buf[q] == '}' && obj) {
+                        close(OBJECT_END, stack[--depth]);
+                    } else if (buf[q] == ']' && !obj) {
+                        close(ARRAY_END, stack[--depth]);
+                    } else {
+                        throw unexpected(q);
+                    }
+                    prev = q;
+                }
+                default -> throw new IllegalStateException();
+            }
+        }
+
+        if (next < index.size()) {
+            throw unexpected(index.get(next));
+        }
+        requireWhitespace(prev + 1, end);
+        return (JsonStructure) value(0);
+    }
+
+
+    /**
+     * Gets the next structural character position, the bytes before it must be white spaces.
+     * @param prev the position of the previous character
+     * @return the next structural character position
+     */
+    private int nextStructural(int prev) {
+        if (next >= index.size()) {
+            throw new JsonParseException("Unexpected end. index:{}", end - off);
+        }
+        int q = index.get(next++);
+        requireWhitespace(prev + 1, q);
+        return q;
+    }
+
+
+    /**
+     * Write the string to the tape.
+     * @param q the position of the opening quote
+     * @return the position of the closing quote
+     */
+    private int string(int q) {
+        int close = index.get(next++);
+        append(STRING, q + 1);
+        append(0, close - q - 1);
+        return close;
+    }
+
+
+    /**
+     * Write the scalar value to the tape.
+     * @param start the start position of the scalar
+     * @param limit the position of the next structural character
+     * @return the position of the last character of the scalar
+     */
+    private int scalar(int start, int limit) {
+        int last = limit - 1;
+        while (last >= start && isWhitespace(buf[last])) last--;
+        int len = last - start + 1;
+        if (len <= 0) throw unexpected(start);
+        switch (buf[start]) {
+            case 't' -> {
+                literal(start, len, "true");
+                append(TRUE, 0);
+            }
+            case 'f' -> {
+                literal(start, len, "false");
+                append(FALSE, 0);
+            }
+            case 'n' -> {
+                literal(start, len, "null");
+                append(NULL, 0);
+            }
+            default -> {
+                int flags = number(start, last + 1);
+                append(NUMBER, start);
+                append(0, ((long) len << 8) | flags);
+            }
+        }
+        return last;
+    }
+
+
+    /**
+     * Check the literal.
+     * @param start the start position
+     * @param len the length
+     * @param literal the expected literal
+     */
+    private void literal(int start, int len, String literal) {
+        if (len != literal.length()) throw unexpected(start);
+        for (int i = 0; i < len; i++) {
+            if (buf[start + i] != literal.charAt(i)) throw unexpected(start + i);
+        }
+    }
+
+
+    /**
+     * Check the number.
+     * @param start the start position
+     * @param limit the end position, exclusive
+     * @return the flags of number
+     */
+    private int number(int start, int limit) {
+        int flags = 0;
+        int i = start;
+        if (i < limit && buf[i] == '-') i++;
+        if (i < limit && buf[i] == '0') {
+            i++;
+        } else {
+            int s = i;
+            while (i < limit && isDigit(buf[i])) i++;
+            if (i == s) throw unexpected(i);
+        }
+        if (i < limit && buf[i] == '.') {
+            flags |= FRAC;
+            int s = ++i;
+            while (i < limit && isDigit(buf[i])) i++;
+            if (i == s) throw unexpected(i);
+        }
+        if (i < limit && (buf[i] == 'e' || buf[i] == 'E')) {
+            flags |= EXP;
+            i++;
+            if (i < limit && (buf[i] == '+' || buf[i] == '-')) i++;
+            int s = i;
+            while (i < limit && isDigit(buf[i])) i++;
+            if (i == s) throw unexpected(i);
+        }
+        if (i != limit) throw unexpected(i);
+        return flags;
+    }
+
+
+    /**
+     * Write the start of the structure to the tape.
+     * @param type the type
+     * @return the tape index of the start
+     */
+    private int open(int type) {
+        int i = size;
+        append(type, 0);
+        append(0, 0);
+        return i;
+    }
+
+
+    /**
+     * Write the end of the structure to the tape.
+     * @param type the type
+     * @param start the tape index of the start
+     */
+    private void close(int type, int start) {
+        append(type, start);
+        tape[start] = ((long) type(start) << 56) | size;
+        // count the elements
+        int count = 0;
+        for (int i = start + 2; i < size - 1; i = after(i)) {
+            count++;
+        }
+        tape[start + 1] = (type == OBJECT_END) ? count >> 1 : count;
+    }
+
+
+    /**
+     * Append the tape.
+     * @param type the type
+     * @param payload the payload
+     */
+    private void append(int type, long payload) {
+        if (size == tape.length) {
+            tape = Arrays.copyOf(tape, size << 1);
+        }
+        tape[size++] = ((long) type << 56) | payload;
+    }
+
+
+    /**
+     * Gets the type at the tape index.
+     * @param i the tape index
+     * @return the type
+     */
+    private int type(int i) {
+        return (int) (tape[i] >>> 56);
+    }
+
+
+    /**
+     * Gets the payload at the tape index.
+     * @param i the tape index
+     * @return the payload
+     */
+    private int payload(int i) {
+        return (int) tape[i];
+    }
+
+
+    /**
+     * Gets the tape index after the value at the tape index.
+     * @param i the tape index
+     * @return the tape index after the value
+     */
+    private int after(int i) {
+        return switch (type(i)) {
+            case OBJECT, ARRAY -> payload(i);
+            case STRING, NUMBER -> i + 2;
+            default -> i + 1;
+        };
+    }
+
+
+    /**
+     * Gets the view of the value at the tape index.
+     * @param i the tape index
+     * @return the view of the value
+     */
+    private JsonValue value(int i) {
+        return switch (type(i)) {
+            case OBJECT -> new TapeObject(i);
+            case ARRAY -> new TapeArray(i);
+            case STRING -> (JsonString) Token.string(new TapeString(payload(i), (int) tape[i + 1]));
+            case NUMBER -> (JsonNumber) Token.number(new TapeNumber(payload(i), (int) (tape[i + 1] >>> 8)),
+                (tape[i + 1] & FRAC) != 0, (tape[i + 1] & EXP) != 0);
+            case TRUE -> JsonValue.TRUE;
+            case FALSE -> JsonValue.FALSE;
+            case NULL -> JsonValue.NULL;
+            default -> throw new IllegalStateException();
+        };
+    }
+
+
+    /**
+     * Decode the string.
+     * @param start the start position of the string content
+     * @param len the length of the string content
+     * @return the decoded string
+     */
+    private String decode(int start, int len) {
+        for (int i = start; i < start + len; i++) {
+            if (buf[i] == '\\') {
+                return Tokenizer.of(Utf8Reader.of(buf, start - 1, len + 2)).next().toString();
+            }
+        }
+        return new String(buf, start, len, StandardCharsets.UTF_8);
+    }
+
+
+    /**
+     * Skip white spaces.
+     * @param i the start position
+     * @return the position of the first non-white space character
+     */
+    private int skipWhitespace(int i) {
+        while (i < end && isWhitespace(buf[i])) i++;
+        return i;
+    }
+
+
+    /**
+     * Require the range is all white spaces.
+     * @param from the start position
+     * @param to the end position, exclusive
+     */
+    private void requireWhitespace(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!isWhitespace(buf[i])) throw unexpected(i);
+        }
+    }
+
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+
+    /**
+     * Create a JsonParseException.
+     * @param pos the position of the unexpected character
+     * @return a JsonParseException
+     */
+    private JsonParseException unexpected(int pos) {
+        return new JsonParseException("Unexpected char. [{}] index:{}",
+            pos < end ? (char) (buf[pos] & 0xFF) : "EOF", pos - off);
+    }
+
+
+    /**
+     * The string view of the tape.
+     */
+    private class TapeString implements CharSource {
+
+        private final int start;
+        private final int len;
+        private String str;
+
+        private TapeString(int start, int len) {
+            this.start = start;
+            this.len = len;
+        }
+
+        @Override
+        public char[] chars() {
+            return toString().toCharArray();
+        }
+
+        @Override
+        public String toString() {
+            return (str == null) ? str = decode(start, len) : str;
+        }
+    }
+
+
+    /**
+     * The number view of the tape.
+     */
+    private class TapeNumber implements CharSource {
+
+        private final int start;
+        private final int len;
+
+        private TapeNumber(int start, int len) {
+            this.start = start;
+            this.len = len;
+        }
+
+        @Override
+        public char[] chars() {
+            char[] chars = new char[len];
+            for (int i = 0; i < len; i++) {
+                chars[i] = (char) buf[start + i];
+            }
+            return chars;
+        }
+
+        @Override
+        public String toString() {
+            return new String(buf, start, len, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+
+    /**
+     * The object view of the tape.
+     * The members are read from the tape on the first access.
+     */
+    private class TapeObject implements JsonObject {
+
+        private final int start;
+        private volatile Map<String, JsonValue> map;
+
+        private TapeObject(int start) {
+            this.start = start;
+        }
+
+        private Map<String, JsonValue> map() {
+            Map<String, JsonValue> m = map;
+            if (m == null) {
+                synchronized (this) {
+                    m = map;
+                    if (m == null) {
+                        m = new LinkedHashMap<>();
+                        for (int i = start + 2; i < payload(start) - 1; ) {
+                            String name = value(i).toString();
+                            i = after(i);
+                            m.put(name, value(i));
+                            i = after(i);
+                        }
+                        map = m;
+                    }
+                }
+            }
+            return m;
+        }
+
+        @Override
+        public JsonValue put(String name, JsonValue value) {
+            return map().put(name, value);
+        }
+
+        @Override
+        public JsonValue get(String name) {
+            return map().get(name);
+        }
+
+        @Override
+        public Set<Map.Entry<String, JsonValue>> entrySet() {
+            return map().entrySet();
+        }
+
+        @Override
+        public int size() {
+            Map<String, JsonValue> m = map;
+            return (m == null) ? (int) tape[start + 1] : m.size();
+        }
+
+        @Override
+        public String toString() {
+            return map().toString();
+        }
+    }
+
+
+    /**
+     * The array view of the tape.
+     * The elements are read from the tape on the first access.
+     */
+    private class TapeArray extends AbstractList<JsonValue> implements JsonArray {
+
+        private final int start;
+        private volatile List<JsonValue> list;
+
+        private TapeArray(int start) {
+            this.start = start;
+        }
+
+        private List<JsonValue> list() {
+            List<JsonValue> l = list;
+            if (l == null) {
+                synchronized (this) {
+                    l = list;
+                    if (l == null) {
+                        l = new ArrayList<>((int) tape[start + 1]);
+                        for (int i = start + 2; i < payload(start) - 1; i = after(i)) {
+                            l.add(value(i));
+                        }
+                        list = l;
+                    }
+                }
+            }
+            return l;
+        }
+
+        @Override
+        public JsonValue get(int index) {
+            return list().get(index);
+        }
+
+        @Override
+        public boolean add(JsonValue value) {
+            return list().add(value);
+        }
+
+        @Override
+        public int size() {
+            List<JsonValue> l = list;
+            return (l == null) ? (int) tape[start + 1] : l.size();
+        }
+
+        @Override
+        public Iterator<JsonValue> iterator() {
+            return list().iterator();
+        }
+    }
+
+}
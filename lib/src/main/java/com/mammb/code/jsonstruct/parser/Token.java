@@ -135,7 +135,7 @@ class Token {
     /**
      * String token.
      */
-    static class Str extends Token implements CharSource {
+    static class Str extends Token implements JsonString {
 
         private final CharSource source;
 
@@ -160,7 +160,7 @@ class Token {
     /**
      * String token.
      */
-    static class StrRaw extends Token implements CharSource {
+    static class StrRaw extends Token implements JsonString {
 
         private final String str;
 
@@ -184,8 +184,20 @@ class Token {
 
     /**
      * Number token.
+     * The number is decomposed into the unscaled value and the scale on first access,
+     * and converted without {@code BigDecimal} when the unscaled value fits in 18 digits.
      */
-    static class Num extends Token implements NumberSource {
+    static class Num extends Token implements JsonNumber {
+
+        /** The max precision of the unscaled value. */
+        private static final int MAX_PRECISION = 18;
+
+        /** The powers of ten. */
+        private static final long[] POW10 = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+            10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L,
+            10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L };
 
         private final CharSource source;
         private final boolean frac;
@@ -193,6 +205,13 @@ class Token {
         private char[] chars;
         private BigDecimal bd;
 
+        /** The absolute unscaled value. */
+        private long unscaled;
+        /** The scale, the value is {@code unscaled * 10^-scale}. */
+        private int scale;
+        /** The precision of the unscaled value, {@code -1} if not decomposed, {@code MAX_PRECISION + 1} if overflow. */
+        private int precision = -1;
+
         private Num(CharSource source, boolean frac, boolean exp) {
             super(Type.NUMBER);
             this.source = source;
@@ -220,7 +239,7 @@ class Token {
                 }
                 return minus ? -num : num;
             } else {
-                return getBigDecimal().intValue();
+                return (int) getLong();
             }
         }
 
@@ -235,14 +254,45 @@ class Token {
                     num = num * 10 + (ca[i] - '0');
                 }
                 return minus ? -num : num;
-            } else {
-                return getBigDecimal().longValue();
             }
+            if (decompose()) {
+                long num = unscaled;
+                if (scale >= 0) {
+                    // truncate the fraction
+                    num = (scale <= MAX_PRECISION) ? num / POW10[scale] : 0;
+                    return minus ? -num : num;
+                } else if (-scale <= MAX_PRECISION && num <= Long.MAX_VALUE / POW10[-scale]) {
+                    num *= POW10[-scale];
+                    return minus ? -num : num;
+                }
+            }
+            return getBigDecimal().longValue();
         }
 
         @Override
         public BigDecimal getBigDecimal() {
-            return (bd == null) ? bd = new BigDecimal(chars()) : bd;
+            if (bd == null) {
+                bd = decompose()
+                    ? BigDecimal.valueOf(negative() ? -unscaled : unscaled, scale)
+                    : new BigDecimal(chars());
+            }
+            return bd;
+        }
+
+        @Override
+        public double getDouble() {
+            double d = decompose()
+                ? DoubleParser.toDouble(negative(), unscaled, -scale)
+                : Double.NaN;
+            return Double.isNaN(d) ? Double.parseDouble(toString()) : d;
+        }
+
+        @Override
+        public float getFloat() {
+            float f = decompose()
+                ? DoubleParser.toFloat(negative(), unscaled, -scale)
+                : Float.NaN;
+            return Float.isNaN(f) ? Float.parseFloat(toString()) : f;
         }
 
         @Override
@@ -260,6 +310,64 @@ class Token {
             return new String(chars());
         }
 
+        private boolean negative() {
+            char[] ca = chars();
+            return ca.length > 0 && ca[0] == '-';
+        }
+
+        /**
+         * Decompose the number into the unscaled value and the scale.
+         * @return {@code true} if the unscaled value fits in {@link #MAX_PRECISION} digits
+         */
+        private boolean decompose() {
+            if (precision >= 0) {
+                return precision <= MAX_PRECISION;
+            }
+            char[] ca = chars();
+            int i = (ca.length > 0 && ca[0] == '-') ? 1 : 0;
+            long u = 0;
+            int prec = 0;
+            int sc = 0;
+            boolean fraction = false;
+            for (; i < ca.length; i++) {
+                char c = ca[i];
+                if (c == '.') {
+                    fraction = true;
+                    continue;
+                }
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                if (u != 0 || c != '0') {
+                    if (++prec > MAX_PRECISION) {
+                        precision = prec;
+                        return false;
+                    }
+                    u = u * 10 + (c - '0');
+                }
+                if (fraction) sc++;
+            }
+            if (i < ca.length) {
+                // exponent
+                i++;
+                boolean minus = ca[i] == '-';
+                if (ca[i] == '-' || ca[i] == '+') i++;
+                int e = 0;
+                for (; i < ca.length; i++) {
+                    e = e * 10 + (ca[i] - '0');
+                    if (e > 100_000) {
+                        precision = MAX_PRECISION + 1;
+                        return false;
+                    }
+                }
+                sc += minus ? e : -e;
+            }
+            unscaled = u;
+            scale = sc;
+            precision = prec;
+            return true;
+        }
+
     }
 
 }
@@ -17,8 +17,9 @@ package com.mammb.code.jsonstruct.parser;
 
 import com.mammb.code.jsonstruct.lang.CharArray;
 import com.mammb.code.jsonstruct.lang.CharReader;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.HexFormat;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Tokenizer.
@@ -27,7 +28,14 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 class Tokenizer {
 
-    private static final ConcurrentHashMap<String, Token> tokenCache = new ConcurrentHashMap<>();
+    /** The max length of the cached key. */
+    private static final int KEY_MAX_LENGTH = 64;
+
+    /**
+     * The cache of the object keys, indexed by the hash of the key.
+     * The entries are immutable and replaced on collision, so the cache needs no lock.
+     */
+    private static final KeyEntry[] keyCache = new KeyEntry[1024];
 
     /** Reader. */
     private final CharReader reader;
@@ -41,7 +49,7 @@ class Tokenizer {
      * @param reader the reader
      * @param ca CharArray
      */
-    private Tokenizer(CharReader reader, CharArray ca) {
+    Tokenizer(CharReader reader, CharArray ca) {
         this.reader = reader;
         this.ca = ca;
     }
@@ -73,7 +81,31 @@ class Tokenizer {
      * @return a next token
      */
     Token next() {
+        return token(reader.readNextChar());
+    }
+
+
+    /**
+     * Read a next token, where an object key is expected.
+     * A string is read as a key, which is shared through the key cache if it is short.
+     * @return a next token
+     */
+    Token nextKey() {
         int ch = reader.readNextChar();
+        if (ch == '"') {
+            readStringChars();
+            return (ca.length() <= KEY_MAX_LENGTH) ? key() : Token.string(ca.popString());
+        }
+        return token(ch);
+    }
+
+
+    /**
+     * Read a token of the first char.
+     * @param ch the first char of the token
+     * @return the token
+     */
+    private Token token(int ch) {
         return switch (ch) {
             case '"' -> readString();
             case '{' -> Token.CURLY_OPEN;
@@ -92,14 +124,116 @@ class Tokenizer {
     }
 
 
+    /**
+     * Skip the rest of the structure, just after the opening bracket was read.
+     * No tokens are created. Brackets must be paired, and strings, numbers and literals
+     * must be well-formed, but the order of names, values, colons and commas is not checked.
+     * @param open the opening bracket, {@code '{'} or {@code '['}
+     */
+    void skipStructure(int open) {
+        // the kinds of open brackets, a set bit for an object, the innermost in the lowest bit
+        long stack = (open == '{') ? 1 : 0;
+        // the kinds of open brackets beyond the depth of 64, from the outermost
+        boolean[] deep = null;
+        int depth = 1;
+        for (;;) {
+            int ch = reader.read();
+            switch (ch) {
+                case ' ', '\t', '\r', '\n', ':', ',' -> { }
+                case '"' -> skipString();
+                case '{', '[' -> {
+                    if (depth >= Long.SIZE) {
+                        if (deep == null || deep.length <= depth - Long.SIZE) {
+                            deep = (deep == null) ? new boolean[Long.SIZE] : Arrays.copyOf(deep, deep.length << 1);
+                        }
+                        deep[depth - Long.SIZE] = stack < 0;
+                    }
+                    stack = (stack << 1) | (ch == '{' ? 1 : 0);
+                    depth++;
+                }
+                case '}', ']' -> {
+                    if (((stack & 1) != 0) != (ch == '}')) throw syntaxError(ch);
+                    if (--depth == 0) return;
+                    stack >>>= 1;
+                    if (depth >= Long.SIZE && deep[depth - Long.SIZE]) {
+                        stack |= Long.MIN_VALUE;
+                    }
+                }
+                case 't' -> readTrue();
+                case 'f' -> readFalse();
+                case 'n' -> readNull();
+                case '0','1','2','3','4','5','6','7','8','9','-' -> skipNumber(ch);
+                default -> throw syntaxError(ch);
+            }
+        }
+    }
+
+
+    /**
+     * Skip the next value.
+     * No tokens are created, see {@link #skipStructure(int)} for the nested structure.
+     * @return the first char of the skipped value
+     */
+    int skipValue() {
+        int ch = reader.readNextChar();
+        switch (ch) {
+            case '"' -> skipString();
+            case '{', '[' -> skipStructure(ch);
+            case 't' -> readTrue();
+            case 'f' -> readFalse();
+            case 'n' -> readNull();
+            case '0','1','2','3','4','5','6','7','8','9','-' -> skipNumber(ch);
+            default -> throw syntaxError(ch);
+        }
+        return ch;
+    }
+
+
+    /**
+     * Discard the chars being read, e.g. after a syntax error.
+     */
+    void reset() {
+        ca.reset();
+    }
+
+
+    /**
+     * Gets the position of the underlying reader.
+     * @return the position of the underlying reader
+     */
+    int position() {
+        return reader.getPosition();
+    }
+
+
+    /**
+     * Close the underlying reader.
+     */
+    void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+
     /**
      * Read string.
      * @return token
      */
     private Token readString() {
+        readStringChars();
+        return Token.string(ca.popString());
+    }
+
+
+    /**
+     * Read the chars of a string into the CharArray, just after the opening quote was read.
+     */
+    private void readStringChars() {
         for (;;) {
-            int len = reader.length(c -> c >= ' ' && c != '"' && c != '\\');
-            ca.add(reader, len);
+            reader.scanString(ca);
             int ch = reader.read();
             if (ch == '"') {
                 break;
@@ -109,7 +243,87 @@ class Tokenizer {
                 throw syntaxError(ch);
             }
         }
-        return Token.string(ca.popString());
+    }
+
+
+    /**
+     * Gets the key token of the chars in the CharArray from the cache.
+     * @return the key token
+     */
+    private Token key() {
+        int hash = ca.contentHash();
+        int index = (hash ^ (hash >>> 16)) & (keyCache.length - 1);
+        KeyEntry entry = keyCache[index];
+        if (entry != null && entry.hash == hash && ca.contentEquals(entry.chars)) {
+            ca.reset();
+            return entry.token;
+        }
+        char[] chars = ca.popChars();
+        String key = new String(chars);
+        key.hashCode(); // cache the hash in the String
+        entry = new KeyEntry(hash, chars, Token.string(key));
+        keyCache[index] = entry;
+        return entry.token;
+    }
+
+
+    /**
+     * Skip string, just after the opening quote was read.
+     */
+    private void skipString() {
+        for (;;) {
+            int ch = reader.read();
+            if (ch == '"') {
+                return;
+            } else if (ch == '\\') {
+                reader.read();
+            } else if (ch == -1) {
+                throw syntaxError(ch);
+            }
+        }
+    }
+
+
+    /**
+     * Skip the rest of the number, just after the first char was read.
+     * The number grammar is checked the same as {@link #readNumber(int)}.
+     * @param ch the first char of the number
+     */
+    private void skipNumber(int ch) {
+
+        if (ch == '-') {
+            ch = reader.read();
+            if (ch < '0' || ch > '9') throw syntaxError(ch);
+        }
+
+        if (ch == '0') {
+            ch = reader.read();
+        } else {
+            do {
+                ch = reader.read();
+            } while (ch >= '0' && ch <= '9');
+        }
+
+        if (ch == '.') {
+            ch = reader.read();
+            if (ch < '0' || ch > '9') throw syntaxError(ch);
+            do {
+                ch = reader.read();
+            } while (ch >= '0' && ch <= '9');
+        }
+
+        if (ch == 'e' || ch == 'E') {
+            ch = reader.read();
+            if (ch == '+' || ch == '-') {
+                ch = reader.read();
+            }
+            if (ch < '0' || ch > '9') throw syntaxError(ch);
+            do {
+                ch = reader.read();
+            } while (ch >= '0' && ch <= '9');
+        }
+
+        reader.stepBack();
     }
 
 
@@ -233,6 +447,15 @@ class Tokenizer {
     }
 
 
+    /**
+     * The entry of the key cache.
+     * @param hash the hash of the key
+     * @param chars the chars of the key
+     * @param token the key token
+     */
+    private record KeyEntry(int hash, char[] chars, Token token) { }
+
+
     /**
      * Create a JsonParseException.
      * @param ch character
@@ -35,12 +35,18 @@ public class Context implements ProcessingEnvironment {
     /** Debug option key. */
     public static final String DEBUG_OPTION_KEY = "debug";
 
+    /** Objectify mode option key. {@code stream}(default) or {@code tree}. */
+    public static final String OBJECTIFY_OPTION_KEY = "objectify";
+
     /** Annotation processing environment. */
     private final ProcessingEnvironment pe;
 
     /** Mode of debug. */
     private final boolean debug;
 
+    /** Objectify via json tree. */
+    private final boolean treeObjectify;
+
     /** Processed class holder. */
     private final Collection<Object> processed;
 
@@ -54,6 +60,8 @@ public class Context implements ProcessingEnvironment {
         this.processed = new ArrayList<>();
         this.debug = Boolean.parseBoolean(pe.getOptions()
             .getOrDefault(DEBUG_OPTION_KEY, "false"));
+        this.treeObjectify = "tree".equalsIgnoreCase(pe.getOptions()
+            .getOrDefault(OBJECTIFY_OPTION_KEY, "stream"));
     }
 
 
@@ -99,6 +107,15 @@ public class Context implements ProcessingEnvironment {
     }
 
 
+    /**
+     * Gets whether the objectify goes through the json tree.
+     * @return {@code true} if the objectify goes through the json tree
+     */
+    public boolean isTreeObjectify() {
+        return treeObjectify;
+    }
+
+
     /**
      * Add the given entity as processed.
      * @param object the {@link JsonStructEntity}
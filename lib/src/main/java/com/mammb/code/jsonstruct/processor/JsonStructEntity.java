@@ -42,14 +42,18 @@ public class JsonStructEntity {
     /** The max cyclic depth. */
     private final int cyclicDepth;
 
+    /** Objectify via json tree. */
+    private final boolean treeObjectify;
+
 
     /**
      * Constructor.
      */
-    private JsonStructEntity(LangUtil lang, TypeElement element, int cyclicDepth) {
+    private JsonStructEntity(LangUtil lang, TypeElement element, int cyclicDepth, boolean treeObjectify) {
         this.lang = lang;
         this.element = element;
         this.cyclicDepth = cyclicDepth;
+        this.treeObjectify = treeObjectify;
     }
 
 
@@ -76,11 +80,11 @@ public class JsonStructEntity {
 
         if (lang.isClass(element) &&
             lang.selectConstructorLike(element, JsonStruct.class).isPresent()) {
-            return Optional.of(new JsonStructEntity(lang, (TypeElement) element, cyclicDepth));
+            return Optional.of(new JsonStructEntity(lang, (TypeElement) element, cyclicDepth, ctx.isTreeObjectify()));
         }
 
         if (lang.isConstructor(element) || lang.isStaticFactory(element)) {
-            return Optional.of(new JsonStructEntity(lang, (TypeElement) element.getEnclosingElement(), cyclicDepth));
+            return Optional.of(new JsonStructEntity(lang, (TypeElement) element.getEnclosingElement(), cyclicDepth, ctx.isTreeObjectify()));
         }
 
         return Optional.empty();
@@ -96,7 +100,9 @@ public class JsonStructEntity {
 
         Converts convert = Converts.of();
 
-        BackingCode objectifyCode = Objectify.of(lang, convert.typeClasses(), cyclicDepth).build(element);
+        BackingCode objectifyCode = treeObjectify
+            ? Objectify.of(lang, convert.typeClasses(), cyclicDepth).build(element)
+            : StreamObjectify.of(lang, convert.typeClasses(), cyclicDepth).build(element);
         BackingCode stringifyCode = Stringify.of(lang, convert.stringifyClasses(), cyclicDepth).build(element);
 
         Imports imports = Imports.of("""
@@ -122,31 +128,70 @@ public class JsonStructEntity {
 
                     @Override
                     public #{entityName} from(CharReader reader) {
-                        JsonStructure json = Parser.of(reader).parse();
-                        var ret =
-                            #{objectifyCode};
-                        return ret;
+                        return from(PullParser.of(reader));
+                    }
+
+                    @Override
+                    public #{entityName} from(PullParser parser) {
+                        #{fromCode}
                     }
 
                     @Override
                     public void toJson(#{entityName} object, Appendable writer) throws IOException {
-                        StringifyBuilder sb = StringifyBuilder.of(writer, convert);
+                        StringifyBuilder sb = builder(writer);
+                        toJson(object, sb);
+                        sb.flush();
+                    }
+
+                    @Override
+                    public void toJson(#{entityName} object, StringifyBuilder sb) {
                         #{stringifyCode}
                     }
 
+                    @Override
+                    public StringifyBuilder builder(Appendable writer) {
+                        return StringifyBuilder.ofBuffered(writer, convert);
+                    }
+
+                    @Override
+                    public StringifyBuilder builder(OutputStream out) {
+                        return StringifyBuilder.of(out, convert);
+                    }
+
                     #{backingCodes}
                 }
                 """)
             .interpolateType("#{processorName}", JsonStructProcessor.class.getName())
             .interpolate("#{className}", getEntityClassName())
             .interpolateType("#{entityName}", getQualifiedName())
-            .interpolate("#{objectifyCode}", objectifyCode.code())
+            .interpolate("#{fromCode}", fromCode(objectifyCode.code()))
             .interpolate("#{stringifyCode}", stringifyCode.code())
             .interpolate("#{backingCodes}", objectifyCode.backingCodes().add(stringifyCode.backingCodes()))
             .add(imports);
     }
 
 
+    /**
+     * Build the body of the {@code from(PullParser)}.
+     * @param objectifyCode the objectify code
+     * @return the body code
+     */
+    private Code fromCode(Code objectifyCode) {
+        if (treeObjectify) {
+            return Code.of("""
+                if (!parser.seekValue()) return null;
+                JsonValue json = parser.getValue();
+                var ret =
+                    #{objectifyCode};
+                return ret;""")
+                .interpolate("#{objectifyCode}", objectifyCode);
+        }
+        return Code.of("""
+            return parser.seekValue() ? #{objectifyCode} : null;""")
+            .interpolate("#{objectifyCode}", objectifyCode);
+    }
+
+
     /**
      * Get package name of the entity.
      * @return package name of the entity
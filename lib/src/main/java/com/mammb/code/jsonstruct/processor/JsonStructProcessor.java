@@ -38,7 +38,7 @@ import java.util.Set;
     JsonStructEntity.ANNOTATION_TYPE,
     JsonStructConvertEntity.ANNOTATION_TYPE,
 })
-@SupportedOptions({ Context.DEBUG_OPTION_KEY })
+@SupportedOptions({ Context.DEBUG_OPTION_KEY, Context.OBJECTIFY_OPTION_KEY })
 public class JsonStructProcessor extends AbstractProcessor {
 
     /** Context of processing. */
@@ -365,7 +365,13 @@ public class Objectify {
     }
 
 
-    private String instantiation(ExecutableElement executable, LangUtil lang) {
+    /**
+     * Gets the instantiation expression of the given executable.
+     * @param executable the constructor or the static factory
+     * @param lang the lang model utility
+     * @return the instantiation expression. e.g. {@code new Book}
+     */
+    static String instantiation(ExecutableElement executable, LangUtil lang) {
 
         if (lang.isConstructor(executable)) {
             // e.g. "new Book"
@@ -126,6 +126,30 @@ public class Path {
     }
 
 
+    /**
+     * Join the paths as a direct access, e.g. {@code object.fullName().age()}.
+     * The paths except the last must be known to be present.
+     * @return the joined string
+     */
+    public String join() {
+        StringBuilder sb = new StringBuilder();
+        for (Iterate.Entry<String> entry : Iterate.of(paths)) {
+            String path = entry.value();
+            if (Objects.isNull(path) || path.isBlank()) {
+                continue;
+            }
+            if (!entry.isFirst() && !path.endsWith(")")) {
+                path = path + "()";
+            }
+            if (!sb.isEmpty()) {
+                sb.append('.');
+            }
+            sb.append(path);
+        }
+        return sb.toString();
+    }
+
+
     /**
      * Join the paths as elvis operation.
      * @return the joined string builder
@@ -0,0 +1,428 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct.processor.assembly;
+
+import com.mammb.code.jsonstruct.JsonStruct;
+import com.mammb.code.jsonstruct.JsonStructIgnore;
+import com.mammb.code.jsonstruct.lang.Iterate;
+import com.mammb.code.jsonstruct.JsonStructException;
+import com.mammb.code.jsonstruct.processor.LangUtil;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Objectify with streaming.
+ * The generated code binds the events of the {@code PullParser}
+ * straight to the constructor, without building a json tree.
+ * @author Naotsugu Kobayashi
+ */
+public class StreamObjectify {
+
+    /** The lang model utility. */
+    private final LangUtil lang;
+
+    /** The known basic classes. */
+    private final Set<String> basicClasses;
+
+    /** The backing codes. */
+    private Code backingCodes;
+
+    /** The max cyclic depth. */
+    private final int cyclicDepth;
+
+    /** The stack of handling type fqcn. */
+    private final Deque<Name> stack;
+
+    /** Already defined names. */
+    private final Set<String> definedNames;
+
+
+    /**
+     * Constructor.
+     * @param lang The lang model utility
+     * @param basicClasses The known basic classes
+     * @param backingCodes The backing methods
+     * @param cyclicDepth The max cyclic depth
+     */
+    private StreamObjectify(LangUtil lang, Set<String> basicClasses, Code backingCodes, int cyclicDepth) {
+        this.lang = Objects.requireNonNull(lang);
+        this.basicClasses = Objects.requireNonNull(basicClasses);
+        this.backingCodes = Objects.requireNonNull(backingCodes);
+        this.cyclicDepth = cyclicDepth;
+        this.stack = new ArrayDeque<>();
+        this.definedNames = new HashSet<>();
+    }
+
+
+    /**
+     * Create a new StreamObjectify instance.
+     * @param lang The lang model utility
+     * @param basicClasses The known basic classes
+     * @param cyclicDepth The max cyclic depth
+     * @return a new StreamObjectify instance
+     */
+    public static StreamObjectify of(LangUtil lang, Set<String> basicClasses, int cyclicDepth) {
+        return new StreamObjectify(lang, basicClasses, Code.of(), cyclicDepth);
+    }
+
+
+    /**
+     * Build backingCode for given element.
+     * The code is an expression that reads the value at the current event of the {@code parser}.
+     * @param element The type element
+     * @return a backingCode
+     */
+    public BackingCode build(TypeElement element) {
+        return BackingCode.of(
+            withStack(element, e -> object(e, Path.of())),
+            backingWithClear());
+    }
+
+
+    private Code toCode(TypeMirror type, Path path) {
+
+        if (basicClasses.contains(type.toString())) {
+            return basic(type);
+        }
+        if (lang.isEnum(type)) {
+            return enumerate(type);
+        }
+        if (lang.isArrayLike(type)) {
+            return array(type, path);
+        }
+        if (lang.isListLike(type)) {
+            return list(type, path);
+        }
+        if (lang.isSetLike(type)) {
+            return set(type, path);
+        }
+        if (lang.isMapLike(type)) {
+            return map(type, path);
+        }
+        return withStack(lang.asTypeElement(type), element -> object(element, path));
+    }
+
+
+    private Code object(TypeElement element, Path path) {
+
+        String methodName = uniqueName(path.camelJoinOr("self") + "Objectify");
+
+        Code locals = Code.of();
+        Code cases = Code.of();
+        Code params = Code.of();
+
+        ExecutableElement constructorLike = lang.selectConstructorLike(element, JsonStruct.class).orElseThrow();
+        for (var param : Iterate.of(constructorLike.getParameters())) {
+
+            String arg = "arg" + param.index();
+            TypeMirror type = param.value().asType();
+
+            locals.add(Code.of("""
+                #{type} #{arg} = #{init};""")
+                .interpolate("#{type}", typeName(type))
+                .interpolate("#{arg}", arg)
+                .interpolate("#{init}", (type.getKind().isPrimitive() ||
+                    lang.isAnnotated(param.value(), JsonStructIgnore.class)) ? defaults(type) : Code.of("null")));
+
+            if (!lang.isAnnotated(param.value(), JsonStructIgnore.class)) {
+                String name = param.value().getSimpleName().toString();
+                cases.add(Code.of("""
+                    case "#{name}" -> {
+                        parser.next();
+                        #{arg} = #{value};
+                    }""")
+                    .interpolate("#{name}", name)
+                    .interpolate("#{arg}", arg)
+                    .interpolate("#{value}", toCode(type, path.with(name))));
+            }
+            params.add(Code.of(arg).append(param.hasNext() ? "," : ""));
+        }
+
+        backingCodes.addEmptyLine().add(Code.of("""
+            private #{type} #{methodName}(PullParser parser) {
+                if (parser.currentEvent() != PullParser.Event.START_OBJECT) {
+                    parser.skipChildren();
+                    return null;
+                }
+                #{locals}
+                while (parser.next() == PullParser.Event.KEY_NAME) {
+                    switch (parser.getName()) {
+                        #{cases}
+                        default -> parser.skipValue();
+                    }
+                }
+                return #{newMethod}(
+                    #{params}
+                );
+            }
+            """)
+            .interpolateType("#{type}", element.getQualifiedName().toString())
+            .interpolate("#{methodName}", methodName)
+            .interpolate("#{locals}", locals)
+            .interpolate("#{cases}", cases)
+            .interpolate("#{newMethod}", Objectify.instantiation(constructorLike, lang))
+            .interpolate("#{params}", params));
+
+        return Code.of("""
+            #{methodName}(parser)""")
+            .interpolate("#{methodName}", methodName);
+    }
+
+
+    private Code defaults(TypeMirror type) {
+        return Code.of("""
+                convert.defaults(#{type}.class)""")
+            .interpolateType("#{type}", lang.erasure(type).toString());
+    }
+
+
+    private Code basic(TypeMirror type) {
+        return Code.of("""
+            parser.getValue().as(convert.to(#{type}.class))""")
+            .interpolateType("#{type}", type.toString());
+    }
+
+
+    private Code enumerate(TypeMirror type) {
+        return Code.of("""
+            Optional.<String>ofNullable(parser.getValue().as(convert.to(String.class))).map(#{enumType}::valueOf).orElse(null)""")
+            .interpolateType("#{enumType}", type.toString());
+    }
+
+
+    private Code list(TypeMirror type, Path path) {
+
+        TypeMirror entryType = lang.entryType(type);
+        String methodName = uniqueName(path.camelJoinOr("self") + "ObjectifyList");
+
+        backingCodes.addEmptyLine().add(Code.of("""
+            private List<#{type}> #{methodName}(PullParser parser) {
+                if (parser.currentEvent() != PullParser.Event.START_ARRAY) {
+                    parser.skipChildren();
+                    return null;
+                }
+                List<#{type}> list = new ArrayList<>();
+                while (parser.next() != PullParser.Event.END_ARRAY) {
+                    list.add(#{entry});
+                }
+                return list;
+            }
+            """)
+            .interpolateType("#{type}", entryType.toString())
+            .interpolate("#{methodName}", methodName)
+            .interpolate("#{entry}", toCode(entryType, Path.of())));
+
+        return Code.of("""
+            #{methodName}(parser)""")
+            .interpolate("#{methodName}", methodName);
+    }
+
+
+    private Code set(TypeMirror type, Path path) {
+
+        TypeMirror entryType = lang.entryType(type);
+        String methodName = uniqueName(path.camelJoinOr("self") + "ObjectifySet");
+
+        backingCodes.addEmptyLine().add(Code.of("""
+            private Set<#{type}> #{methodName}(PullParser parser) {
+                if (parser.currentEvent() != PullParser.Event.START_ARRAY) {
+                    parser.skipChildren();
+                    return null;
+                }
+                Set<#{type}> set = new LinkedHashSet<>();
+                while (parser.next() != PullParser.Event.END_ARRAY) {
+                    set.add(#{entry});
+                }
+                return set;
+            }
+            """)
+            .interpolateType("#{type}", entryType.toString())
+            .interpolate("#{methodName}", methodName)
+            .interpolate("#{entry}", toCode(entryType, Path.of())));
+
+        return Code.of("""
+            #{methodName}(parser)""")
+            .interpolate("#{methodName}", methodName);
+    }
+
+
+    private Code array(TypeMirror type, Path path) {
+
+        TypeMirror compType = lang.entryType(type);
+        String methodName = uniqueName(path.camelJoinOr("self") + "ObjectifyArray");
+
+        backingCodes.addEmptyLine().add(Code.of("""
+            private #{type}[] #{methodName}(PullParser parser) {
+                if (parser.currentEvent() != PullParser.Event.START_ARRAY) {
+                    parser.skipChildren();
+                    return null;
+                }
+                List<#{type}> list = new ArrayList<>();
+                while (parser.next() != PullParser.Event.END_ARRAY) {
+                    list.add(#{entry});
+                }
+                return list.toArray(new #{typeNew}[0]);
+            }
+            """)
+            .interpolateType("#{type}", compType.toString())
+            .interpolateType("#{typeNew}", compType.toString().replace("[]", "[0]"))
+            .interpolate("#{methodName}", methodName)
+            .interpolate("#{entry}", toCode(compType, Path.of())));
+
+        return Code.of("""
+            #{methodName}(parser)""")
+            .interpolate("#{methodName}", methodName);
+    }
+
+
+    private Code map(TypeMirror type, Path path) {
+
+        TypeMirror[] entryTypes = lang.biEntryTypes(type);
+        String methodName = uniqueName(path.camelJoinOr("self") + "ObjectifyMap");
+
+        backingCodes.addEmptyLine().add(Code.of("""
+            private Map<#{keyType}, #{valType}> #{methodName}(PullParser parser) {
+                if (parser.currentEvent() == PullParser.Event.START_OBJECT) {
+                    Map<#{keyType}, #{valType}> map = new LinkedHashMap<>();
+                    while (parser.next() == PullParser.Event.KEY_NAME) {
+                        #{keyType} key = #{nameKey};
+                        parser.next();
+                        #{valType} val = #{val};
+                        map.put(key, val);
+                    }
+                    return map;
+                } else if (parser.currentEvent() == PullParser.Event.START_ARRAY) {
+                    Map<#{keyType}, #{valType}> map = new LinkedHashMap<>();
+                    while (parser.next() != PullParser.Event.END_ARRAY) {
+                        #{keyType} key = #{key};
+                        parser.next();
+                        #{valType} val = #{val};
+                        map.put(key, val);
+                    }
+                    return map;
+                } else if (parser.currentEvent() == PullParser.Event.VALUE_NULL) {
+                    return null;
+                } else {
+                    throw new JsonStructException("Illegal value.[{}]", parser.currentEvent());
+                }
+            }
+            """)
+            .interpolateType("#{keyType}", entryTypes[0].toString())
+            .interpolateType("#{valType}", entryTypes[1].toString())
+            .interpolate("#{methodName}", methodName)
+            .interpolate("#{nameKey}", nameKey(entryTypes[0]))
+            .interpolate("#{key}", toCode(entryTypes[0], Path.of()))
+            .interpolate("#{val}", toCode(entryTypes[1], Path.of()))
+            .add(Imports.of("""
+                import com.mammb.code.jsonstruct.parser.*;
+                import com.mammb.code.jsonstruct.JsonStructException;
+                """)));
+
+        return Code.of("""
+            #{methodName}(parser)""")
+            .interpolate("#{methodName}", methodName);
+    }
+
+
+    private Code nameKey(TypeMirror type) {
+        if (lang.isAssignable(type, "java.lang.String")) {
+            return Code.of("parser.getName()");
+        }
+        if (basicClasses.contains(type.toString())) {
+            return Code.of("""
+                JsonString.of(parser.getName()).as(convert.to(#{type}.class))""")
+                .interpolateType("#{type}", type.toString());
+        }
+        if (lang.isEnum(type)) {
+            return Code.of("""
+                #{enumType}.valueOf(parser.getName())""")
+                .interpolateType("#{enumType}", type.toString());
+        }
+        // structured key can not be represented by the name
+        return Code.of("null");
+    }
+
+
+    private Code skip() {
+        String methodName = "skipObjectify";
+        if (!definedNames.contains(methodName)) {
+            backingCodes.addEmptyLine().add(Code.of("""
+                private <T> T #{methodName}(PullParser parser) {
+                    parser.skipChildren();
+                    return null;
+                }
+                """)
+                .interpolate("#{methodName}", methodName));
+            definedNames.add(methodName);
+        }
+        return Code.of("""
+            #{methodName}(parser)""")
+            .interpolate("#{methodName}", methodName);
+    }
+
+
+    private String typeName(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return typeName(((ArrayType) type).getComponentType()) + "[]";
+        }
+        return Code.of("#{type}").interpolateType("#{type}", type.toString()).content();
+    }
+
+
+    private Code backingWithClear() {
+        Code ret = backingCodes;
+        backingCodes = Code.of();
+        stack.clear();
+        definedNames.clear();
+        return ret;
+    }
+
+
+    private String uniqueName(String candidate) {
+        for(int i = 1; ; i++) {
+            if (definedNames.contains(candidate)) {
+                candidate = candidate + i;
+            } else {
+                definedNames.add(candidate);
+                return candidate;
+            }
+        }
+    }
+
+
+    private Code withStack(Element element, Function<TypeElement, Code> function) {
+        if (!element.getKind().isClass()) {
+            throw new JsonStructException("element must be type.[{}]", element);
+        }
+        TypeElement type = (TypeElement) element;
+        if (stack.stream().filter(type.getQualifiedName()::equals).count() > cyclicDepth) {
+            return skip();
+        }
+        stack.push(type.getQualifiedName());
+        Code ret = function.apply(type);
+        stack.pop();
+        return ret;
+    }
+
+}
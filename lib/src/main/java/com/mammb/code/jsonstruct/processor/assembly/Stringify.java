@@ -52,6 +52,9 @@ public class Stringify {
     /** Already defined names. */
     private final Set<String> definedNames;
 
+    /** The names of constant fragment fields, keyed by the content. */
+    private final Map<String, String> fragments;
+
 
     /**
      * Constructor.
@@ -67,6 +70,7 @@ public class Stringify {
         this.stack = new ArrayDeque<>();
         this.cyclicDepth = cyclicDepth;
         this.definedNames = new HashSet<>();
+        this.fragments = new HashMap<>();
     }
 
 
@@ -115,11 +119,41 @@ public class Stringify {
 
 
     private Code toCode(ExecutableElement accessor, Path path) {
+        if (accessor.getReturnType().getKind().isPrimitive()) {
+            return primitive(accessor.getReturnType(),
+                path.with(accessor.getSimpleName().toString()));
+        }
         return toCode(accessor.getReturnType(),
             path.with(accessor.getSimpleName().toString()));
     }
 
 
+    /**
+     * Build the code of the primitive property, appended by the static type without boxing.
+     * The property is accessed directly, as the enclosing object has been checked present.
+     * @param type the primitive type
+     * @param path the path of the property
+     * @return the code
+     */
+    private Code primitive(TypeMirror type, Path path) {
+        String method = switch (type.getKind()) {
+            case INT -> "appendInt";
+            case SHORT -> "appendShort";
+            case BYTE -> "appendByte";
+            case LONG -> "appendLong";
+            case DOUBLE -> "appendDouble";
+            case FLOAT -> "appendFloat";
+            case BOOLEAN -> "appendBoolean";
+            case CHAR -> "appendChar";
+            default -> throw new JsonStructException("Unsupported type.[{}]", type);
+        };
+        return Code.of("""
+            sb.#{method}(#{path});""")
+            .interpolate("#{method}", method)
+            .interpolate("#{path}", path.join());
+    }
+
+
     private Code basic(Path path) {
         return Code.of("""
             sb.appendObj(#{path});""")
@@ -131,21 +165,24 @@ public class Stringify {
 
         Code props = Code.of();
 
+        // the opening brace or the separator, and the property name are fused into a fragment
+        String prefix = "{";
         for (var accessor : Iterate.of(lang.selectAccessors(type, JsonStructIgnore.class))) {
             Code prop = Code.of("""
-                sb.append("\\"#{name}\\":");
+                sb.append(#{name});
                 #{value}""")
-                .interpolate("#{name}", lang.getPropertyName(accessor.value()))
-                .interpolate("#{value}", toCode(accessor.value(), path))
-                .add(accessor.hasNext() ? Code.of("sb.append(',');") : Code.of());
+                .interpolate("#{name}", fragment(prefix + "\\\"" + lang.getPropertyName(accessor.value()) + "\\\":"))
+                .interpolate("#{value}", toCode(accessor.value(), path));
             props.add(prop);
+            prefix = ",";
         }
+        props.add(prefix.equals("{")
+            ? Code.of("sb.append(#{name});").interpolate("#{name}", fragment("{}"))
+            : Code.of("sb.append('}');"));
 
         return Code.of("""
             if (#{isPresent}) {
-                sb.append("{");
-                    #{props}
-                sb.append("}");
+                #{props}
             } else {
                 sb.appendNull();
             }
@@ -202,12 +239,12 @@ public class Stringify {
                     sb.appendNull();
                     return;
                 }
-                sb.append("[");
+                sb.append('[');
                 for (Iterate.Entry<#{type}> entry : Iterate.of(iterable)) {
                     if (!entry.isFirst()) sb.append(',');
                     #{entry}
                 }
-                sb.append("]");
+                sb.append(']');
             }
             """)
             .interpolateType("#{type}", entryType.toString())
@@ -232,14 +269,14 @@ public class Stringify {
                     sb.appendNull();
                     return;
                 }
-                sb.append("{");
+                sb.append('{');
                 for (Iterate.Entry<Map.Entry<#{keyType}, #{valType}>> entry : Iterate.of(map.entrySet())) {
                     if (!entry.isFirst()) sb.append(',');
                     #{keyEntry}
-                    sb.append(":");
+                    sb.append(':');
                     #{valEntry};
                 }
-                sb.append("}");
+                sb.append('}');
             }
             """)
                 .interpolateType("#{keyType}", key.toString())
@@ -261,14 +298,14 @@ public class Stringify {
                     sb.appendNull();
                     return;
                 }
-                sb.append("[");
+                sb.append('[');
                 for (Iterate.Entry<Map.Entry<#{keyType}, #{valType}>> entry : Iterate.of(map.entrySet())) {
                     if (!entry.isFirst()) sb.append(',');
                     #{keyEntry}
-                    sb.append(",");
+                    sb.append(',');
                     #{valEntry}
                 }
-                sb.append("]");
+                sb.append(']');
             }
             """)
                 .interpolateType("#{keyType}", key.toString())
@@ -287,6 +324,23 @@ public class Stringify {
     }
 
 
+    /**
+     * Gets the name of the static field of the constant fragment, the field is defined on the first use.
+     * @param literal the content of the fragment, as a java string literal without quotes
+     * @return the name of the field
+     */
+    private String fragment(String literal) {
+        return fragments.computeIfAbsent(literal, k -> {
+            String name = "FRAGMENT_" + fragments.size();
+            backingMethods.addEmptyLine().add(Code.of("""
+                private static final Fragment #{name} = Fragment.of("#{literal}");""")
+                .interpolate("#{name}", name)
+                .interpolate("#{literal}", k));
+            return name;
+        });
+    }
+
+
     private Code backingWithClear() {
         Code ret = backingMethods;
         backingMethods = Code.of();
@@ -19,5 +19,8 @@
  */
 module com.mammb.code.jsonstruct {
     exports com.mammb.code.jsonstruct;
+    exports com.mammb.code.jsonstruct.convert;
+    exports com.mammb.code.jsonstruct.parser;
+    exports com.mammb.code.jsonstruct.lang;
     requires java.compiler;
 }
@@ -19,6 +19,9 @@ import com.mammb.code.jsonstruct.testdata.Book;
 import com.mammb.code.jsonstruct.testdata.Food;
 import com.mammb.code.jsonstruct.testdata.Person;
 import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -73,4 +76,19 @@ public class JsonEmptyTest {
         assertEquals(jsonStr, Json.stringify(d));
     }
 
+
+    @Test
+    void testEmptyObject() throws IOException {
+        var json = Json.of(Nothing.class);
+        assertEquals("{}", json.toJson(new Nothing()));
+        assertEquals("{}", new String(json.toBytes(new Nothing()), StandardCharsets.UTF_8));
+        var writer = new StringWriter();
+        json.toJson(new Nothing(), writer);
+        assertEquals("{}", writer.toString());
+        assertEquals(new Nothing(), json.fromJson("{}"));
+    }
+
+    @JsonStruct
+    public record Nothing() { }
+
 }
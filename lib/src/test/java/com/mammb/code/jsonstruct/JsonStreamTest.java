@@ -0,0 +1,489 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct;
+
+import com.mammb.code.jsonstruct.lang.CharReader;
+import com.mammb.code.jsonstruct.parser.PullParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JsonStreamTest.
+ *
+ * @author Naotsugu Kobayashi
+ */
+public class JsonStreamTest {
+
+    @Test
+    void testUnknownSkipped() {
+
+        var d = Json.objectify("""
+            {"x":{"y":[1,{"z":2}]},"str":"a1","list":[1,2],"num":3,"w":[]}""", Data1.class);
+        assertEquals("a1", d.str);
+        assertEquals(List.of(1L, 2L), d.list);
+        assertEquals(3, d.num);
+    }
+
+
+    @Test
+    void testNull() {
+        var d = Json.objectify("""
+            {"str":null,"list":null}""", Data1.class);
+        assertNull(d.str);
+        assertNull(d.list);
+        assertEquals(0, d.num);
+        assertNull(Json.objectify("null", Data1.class));
+    }
+
+
+    @Test
+    void testFromParser() {
+
+        var json = Json.of(Data1.class);
+        var parser = PullParser.of("""
+            [{"str":"a"},{"str":"b","num":2}]""");
+        assertEquals(PullParser.Event.START_ARRAY, parser.next());
+
+        parser.next();
+        assertEquals("a", json.from(parser).str);
+        parser.next();
+        var d = json.from(parser);
+        assertEquals("b", d.str);
+        assertEquals(2, d.num);
+        assertEquals(PullParser.Event.END_ARRAY, parser.next());
+    }
+
+    @Test
+    void testBytes() {
+
+        var json = Json.of(Data1.class);
+        byte[] bytes = """
+            {"str":"aé漢\uD83D\uDE00","list":[1,2],"num":3}""".getBytes(StandardCharsets.UTF_8);
+
+        var d = json.fromJson(bytes);
+        assertEquals("aé漢\uD83D\uDE00", d.str);
+        assertEquals(List.of(1L, 2L), d.list);
+        assertEquals(3, d.num);
+
+        assertEquals(d, json.fromJson(new ByteArrayInputStream(bytes)));
+        assertEquals(d, json.fromJson(ByteBuffer.wrap(bytes)));
+    }
+
+    @Test
+    void testPath() throws IOException {
+
+        var json = Json.of(Data1.class);
+        Path small = Files.createTempFile("small", ".json");
+        Path large = Files.createTempFile("large", ".json");
+        try {
+            Files.writeString(small, """
+                {"str":"é","num":1}""");
+            assertEquals("é", json.fromJson(small).str);
+
+            String str = "é".repeat(1 << 20);
+            Files.writeString(large, """
+                {"str":"%s","num":2}""".formatted(str));
+            var d = json.fromJson(large);
+            assertEquals(str, d.str);
+            assertEquals(2, d.num);
+        } finally {
+            Files.deleteIfExists(small);
+            Files.deleteIfExists(large);
+        }
+    }
+
+    @Test
+    void testLines() {
+
+        var json = Json.of(Data1.class);
+        String lines = """
+            {"str":"a","list":[1],"num":1}
+            {"str":"b\\n","num":2}\r
+
+            {"str":"c","num":3} {"str":"x"}
+            {"str":"d","num":
+            null
+            {"str":"e","num":5}""";
+
+        var errors = new ArrayList<String>();
+        try (var stream = json.lines(new StringReader(lines), e -> errors.add(e.getMessage()))) {
+            var list = stream.toList();
+            assertEquals(List.of("a", "b\n", "e"), list.stream().map(Data1::str).toList());
+            assertEquals(List.of(1L), list.get(0).list);
+            assertEquals(5, list.get(2).num);
+        }
+        assertEquals(List.of("Malformed line. line:4", "Malformed line. line:5"), errors);
+
+        assertThrows(JsonStructException.class, () -> {
+            try (var stream = json.lines(new StringReader(lines))) {
+                stream.forEach(d -> { });
+            }
+        });
+    }
+
+    @Test
+    void testParallelLines() throws IOException {
+
+        var json = Json.of(Data1.class);
+        var sb = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            sb.append((i % 1000 == 999)
+                ? "{\"str\":\"é%d\",\"num\":\n".formatted(i)
+                : "{\"str\":\"é%d\",\"num\":%d}\n".formatted(i, i));
+        }
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        var errors = new AtomicInteger();
+        var list = json.parallelLines(ByteBuffer.wrap(bytes), e -> errors.incrementAndGet()).toList();
+        assertEquals(19_980, list.size());
+        assertEquals(20, errors.get());
+        for (int i = 0, n = 0; i < 20_000; i++) {
+            if (i % 1000 == 999) continue;
+            assertEquals("é" + i, list.get(n++).str);
+        }
+
+        Path path = Files.createTempFile("lines", ".jsonl");
+        try {
+            Files.write(path, bytes);
+            assertEquals(19_980, json.parallelLines(path, e -> { }).unordered().count());
+            assertThrows(JsonStructException.class, () -> json.parallelLines(path).toList());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void testPushParser() {
+
+        var json = Json.of(Data1.class);
+        byte[] bytes = """
+            {"str":"é1","list":[1, 2],"num":1}
+            null {"x":{"y":[]}, "str":"é2","num":2}""".getBytes(StandardCharsets.UTF_8);
+
+        var list = new ArrayList<Data1>();
+        var parser = json.pushParser(list::add);
+        for (byte b : bytes) {
+            parser.feed(ByteBuffer.wrap(new byte[] { b }));
+        }
+        parser.end();
+        assertEquals(List.of(new Data1("é1", List.of(1L, 2L), 1), new Data1("é2", null, 2)), list);
+    }
+
+    @Test
+    void testArrayPushParser() {
+
+        var json = Json.of(Data1.class);
+        byte[] bytes = """
+            [{"str":"é1","list":[1, 2],"num":1}, null,
+             {"x":{"y":[]}, "str":"é2","num":2}] []""".getBytes(StandardCharsets.UTF_8);
+
+        var list = new ArrayList<Data1>();
+        var parser = json.arrayPushParser(list::add);
+        for (byte b : bytes) {
+            parser.feed(ByteBuffer.wrap(new byte[] { b }));
+        }
+        parser.end();
+        assertEquals(List.of(new Data1("é1", List.of(1L, 2L), 1), new Data1("é2", null, 2)), list);
+    }
+
+    @Test
+    void testFlow() {
+
+        var json = Json.of(Data1.class);
+        var source = new ArrayList<Data1>();
+        for (int i = 0; i < 100; i++) {
+            source.add(new Data1("é" + i, List.of((long) i), i));
+        }
+
+        var decoder = json.decoder();
+        json.publisher(source).subscribe(decoder);
+
+        var received = new ArrayList<Data1>();
+        var completed = new AtomicBoolean();
+        var subscription = new AtomicReference<Flow.Subscription>();
+        decoder.subscribe(new Flow.Subscriber<>() {
+            @Override public void onSubscribe(Flow.Subscription s) { subscription.set(s); }
+            @Override public void onNext(Data1 item) { received.add(item); }
+            @Override public void onError(Throwable throwable) { throw new AssertionError(throwable); }
+            @Override public void onComplete() { completed.set(true); }
+        });
+
+        subscription.get().request(3);
+        assertEquals(source.subList(0, 3), received);
+        assertFalse(completed.get());
+
+        subscription.get().request(Long.MAX_VALUE);
+        assertEquals(source, received);
+        assertTrue(completed.get());
+    }
+
+    @Test
+    void testStreamArray() {
+
+        var json = Json.of(Data1.class);
+        String array = """
+            [ {"str":"a","list":[1, 2],"num":1}, null,
+              {"str":"b","num":2} ]""";
+        try (var stream = json.streamArray(new StringReader(array))) {
+            assertEquals(List.of("a", "b"), stream.map(Data1::str).toList());
+        }
+        try (var stream = json.streamArray(new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8)))) {
+            assertEquals(0, stream.count());
+        }
+        assertThrows(JsonStructException.class, () -> {
+            try (var stream = json.streamArray(new StringReader("{}"))) {
+                stream.forEach(d -> { });
+            }
+        });
+    }
+
+    @Test
+    void testParallelArray() throws IOException {
+
+        var json = Json.of(Data1.class);
+        var sb = new StringBuilder("\uFEFF [");
+        for (int i = 0; i < 20_000; i++) {
+            if (i > 0) sb.append(",\n");
+            sb.append("{\"str\":\"é,\\\"]%d\",\"list\":[%d, 1],\"num\":%d}".formatted(i, i, i));
+        }
+        sb.append("] ");
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        var list = json.parallelArray(ByteBuffer.wrap(bytes)).toList();
+        assertEquals(20_000, list.size());
+        for (int i = 0; i < 20_000; i++) {
+            assertEquals("é,\"]" + i, list.get(i).str);
+            assertEquals(List.of((long) i, 1L), list.get(i).list);
+        }
+
+        Path path = Files.createTempFile("array", ".json");
+        try {
+            Files.write(path, bytes);
+            assertEquals(20_000, json.parallelArray(path).unordered().count());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+        assertEquals(0, json.parallelArray(ByteBuffer.wrap("[ ]".getBytes(StandardCharsets.UTF_8))).count());
+        assertThrows(JsonStructException.class, () -> json.parallelArray(ByteBuffer.wrap("{}".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void testReadAll() throws IOException {
+
+        var json = Json.of(Data1.class);
+        Path dir = Files.createTempDirectory("files");
+        try {
+            List<Path> paths = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                Path path = dir.resolve("%02d.json".formatted(i));
+                Files.writeString(path, """
+                    {"str":"%d","num":%d}""".formatted(i, i));
+                paths.add(path);
+            }
+            Files.writeString(dir.resolve("skip.txt"), "{}");
+
+            var list = json.readAll(paths);
+            assertEquals(50, list.size());
+            for (int i = 0; i < 50; i++) {
+                assertEquals(String.valueOf(i), list.get(i).str);
+            }
+            assertEquals(list, json.readAll(paths, 1));
+            assertEquals(list, json.readDirectory(dir, "*.json", 3));
+
+            var seen = new ArrayList<Integer>();
+            json.readEach(paths, 4, (path, d) -> seen.add(d.num));
+            seen.sort(null);
+            assertEquals(50, seen.size());
+            assertEquals(49, seen.get(49));
+
+            Files.writeString(paths.get(10), "{\"str\":");
+            var e = assertThrows(JsonStructException.class, () -> json.readAll(paths, 4));
+            assertTrue(e.getMessage().contains("10.json"));
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path path : files.toList()) Files.delete(path);
+            }
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    void testToBytes() throws IOException {
+
+        var json = Json.of(Data1.class);
+        var d = new Data1("é\uD83D\uDE00\n", List.of(1L, 2L), 3);
+        String expected = """
+            {"str":"é\uD83D\uDE00\\n","list":[1,2],"num":3}""";
+
+        assertEquals(expected, new String(json.toBytes(d), StandardCharsets.UTF_8));
+
+        var out = new ByteArrayOutputStream();
+        json.toJson(d, out);
+        assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+
+        var buffer = ByteBuffer.allocate(64);
+        buffer.put((byte) ' ');
+        json.toJson(d, buffer);
+        assertEquals(" " + expected, new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+        assertThrows(BufferOverflowException.class, () -> json.toJson(d, ByteBuffer.allocate(8)));
+
+        assertEquals("null", new String(json.toBytes(null), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testToPath() throws IOException {
+
+        var json = Json.of(Data1.class);
+        var d = new Data1("é".repeat(2_000_000), List.of(1L), 1);
+        Path path = Files.createTempFile("out", ".json");
+        try {
+            Files.writeString(path, "x".repeat(5_000_000));
+            json.toJson(d, path);
+            assertEquals(d, json.fromJson(path));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void testToJsonArray() throws IOException {
+
+        var json = Json.of(Data1.class);
+        var sb = new StringBuilder();
+        json.toJsonArray(Stream.of(new Data1("a", List.of(1L), 1), null, new Data1("b", null, 2)), sb);
+        assertEquals("""
+            [{"str":"a","list":[1],"num":1},null,{"str":"b","list":null,"num":2}]""", sb.toString());
+
+        sb.setLength(0);
+        json.toJsonArray(List.<Data1>of().iterator(), sb);
+        assertEquals("[]", sb.toString());
+
+        var out = new ByteArrayOutputStream();
+        json.toJsonArray(IntStream.range(0, 1000).mapToObj(i -> new Data1("é" + i, List.of(), i)), out);
+        var list = json.streamArray(new ByteArrayInputStream(out.toByteArray())).toList();
+        assertEquals(1000, list.size());
+        assertEquals("é999", list.get(999).str);
+    }
+
+    @Test
+    void testToJsonLines() throws IOException {
+
+        var json = Json.of(Data1.class);
+        var sb = new StringBuilder();
+        json.toJsonLines(List.of(new Data1("a", List.of(1L), 1), new Data1("b", null, 2)).iterator(), sb);
+        assertEquals("""
+            {"str":"a","list":[1],"num":1}
+            {"str":"b","list":null,"num":2}
+            """, sb.toString());
+
+        var out = new ByteArrayOutputStream();
+        json.toJsonLines(IntStream.range(0, 1000).mapToObj(i -> new Data1("é" + i, List.of(), i)), out);
+        var list = json.lines(new StringReader(out.toString(StandardCharsets.UTF_8))).toList();
+        assertEquals(1000, list.size());
+        assertEquals("é999", list.get(999).str);
+    }
+
+    @Test
+    void testHandWritten() throws IOException {
+
+        // implements only the abstract methods, as before the pull parser binding
+        Json<String> json = new Json<>() {
+            @Override
+            public String from(CharReader reader) {
+                var parser = PullParser.of(reader);
+                return (parser.next() == PullParser.Event.START_OBJECT)
+                    ? parser.getValue().toString()
+                    : parser.getString();
+            }
+            @Override
+            public void toJson(String object, Appendable writer) throws IOException {
+                writer.append('"').append(object.replace("\"", "\\\"")).append('"');
+            }
+        };
+
+        var sb = new StringBuilder();
+        json.toJsonArray(Stream.of("a\"b", "é"), sb);
+        assertEquals("[\"a\\\"b\",\"é\"]", sb.toString());
+        assertEquals("\"é\"", new String(json.toBytes("é"), StandardCharsets.UTF_8));
+        assertEquals("é", json.fromJson("\"é\""));
+
+        // bound through the value of the parser
+        assertEquals(List.of("a\"b", "é"), json.streamArray(new StringReader(sb.toString())).toList());
+        assertEquals(List.of("{k=[1, {}]}"),
+            json.streamArray(new StringReader("[{\"k\": [1, {}]}]")).toList());
+    }
+
+    @Test
+    void testSink() throws Exception {
+
+        var json = Json.of(Data1.class);
+        var out = new ByteArrayOutputStream();
+        var channel = Channels.newChannel(out);
+
+        try (var sink = json.sink(channel, 16)) {
+            sink.accept(new Data1("é", List.of(1L), -1));
+            sink.flush();
+            assertEquals("""
+                {"str":"é","list":[1],"num":-1}
+                """, out.toString(StandardCharsets.UTF_8));
+
+            var threads = new ArrayList<Thread>();
+            for (int t = 0; t < 4; t++) {
+                int base = t * 10_000;
+                var thread = new Thread(() -> {
+                    for (int i = 0; i < 10_000; i++) sink.accept(new Data1("s", null, base + i));
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            for (var thread : threads) thread.join();
+        }
+
+        var nums = json.lines(new StringReader(out.toString(StandardCharsets.UTF_8)))
+            .mapToInt(Data1::num).sorted().toArray();
+        assertEquals(40_001, nums.length);
+        assertEquals(-1, nums[0]);
+        assertEquals(39_999, nums[40_000]);
+    }
+
+    @JsonStruct
+    public record Data1(String str, List<Long> list, int num) { }
+
+}
@@ -17,6 +17,9 @@ package com.mammb.code.jsonstruct;
 
 import com.mammb.code.jsonstruct.testdata.*;
 import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -101,4 +104,23 @@ class JsonTest {
         assertEquals(jsonStr.trim(), json.toJson(pet));
     }
 
+
+    @Test
+    void testPrimitives() throws IOException {
+        var json = Json.of(Gauge.class);
+        var jsonStr = """
+            {"p":{"i":-2147483648,"l":-9223372036854775808,"d":1.0E-5,"f":0.1,"b":true,"c":"\\"","s":-1,"y":7},"z":false}""";
+        var gauge = new Gauge(new Primitives(Integer.MIN_VALUE, Long.MIN_VALUE, 0.00001, 0.1f, true, '"', (short) -1, (byte) 7), false);
+
+        assertEquals(jsonStr, json.toJson(gauge));
+        assertEquals(jsonStr, new String(json.toBytes(gauge), StandardCharsets.UTF_8));
+        var writer = new StringWriter();
+        json.toJson(gauge, writer);
+        assertEquals(jsonStr, writer.toString());
+        assertEquals(gauge, json.fromJson(jsonStr));
+
+        assertEquals("""
+            {"p":null,"z":true}""", json.toJson(new Gauge(null, true)));
+    }
+
 }
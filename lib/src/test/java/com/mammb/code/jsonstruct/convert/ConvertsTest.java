@@ -15,8 +15,11 @@
  */
 package com.mammb.code.jsonstruct.convert;
 
+import com.mammb.code.jsonstruct.JsonStructException;
+import com.mammb.code.jsonstruct.parser.JsonArray;
 import com.mammb.code.jsonstruct.parser.JsonString;
 import com.mammb.code.jsonstruct.parser.JsonValue;
+import com.mammb.code.jsonstruct.parser.Parser;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
@@ -58,4 +61,35 @@ class ConvertsTest {
             Converts.of().to(LocalDate.class).apply(JsonString.of("2022-11-07")));
     }
 
+
+    @Test
+    void testObjectifyByteShort() {
+        var bytes = (JsonArray) Parser.of("[127, -128, 128, -129, 1.9, -1.9, 4294967297, 1e2, 1e3, 1.5, 18446744073709551617, 1.0]").parse();
+        var toByte = Converts.of().to(byte.class);
+        assertEquals((byte) 127, toByte.apply(bytes.get(0)));
+        assertEquals((byte) -128, toByte.apply(bytes.get(1)));
+        assertThrows(JsonStructException.class, () -> toByte.apply(bytes.get(2)));
+        assertThrows(JsonStructException.class, () -> toByte.apply(bytes.get(3)));
+        assertThrows(JsonStructException.class, () -> toByte.apply(bytes.get(4)));
+        assertThrows(JsonStructException.class, () -> toByte.apply(bytes.get(5)));
+        assertThrows(JsonStructException.class, () -> toByte.apply(bytes.get(6)));
+        assertEquals((byte) 100, toByte.apply(bytes.get(7)));
+        assertThrows(JsonStructException.class, () -> toByte.apply(bytes.get(8)));
+        assertThrows(JsonStructException.class, () -> toByte.apply(bytes.get(9)));
+        assertThrows(JsonStructException.class, () -> toByte.apply(bytes.get(10)));
+        assertEquals((byte) 1, toByte.apply(bytes.get(11)));
+
+        var shorts = (JsonArray) Parser.of("[32767, -32768, 32768, -32769, 2.5, 4294967297, 1.5, 18446744073709551617]").parse();
+        var toShort = Converts.of().to(Short.class);
+        assertEquals((short) 32767, toShort.apply(shorts.get(0)));
+        assertEquals((short) -32768, toShort.apply(shorts.get(1)));
+        assertThrows(JsonStructException.class, () -> toShort.apply(shorts.get(2)));
+        assertThrows(JsonStructException.class, () -> toShort.apply(shorts.get(3)));
+        assertThrows(JsonStructException.class, () -> toShort.apply(shorts.get(4)));
+        assertThrows(JsonStructException.class, () -> toShort.apply(shorts.get(5)));
+        assertThrows(JsonStructException.class, () -> toShort.apply(shorts.get(6)));
+        assertThrows(JsonStructException.class, () -> toShort.apply(shorts.get(7)));
+        assertThrows(JsonStructException.class, () -> toShort.apply(JsonString.of("1")));
+    }
+
 }
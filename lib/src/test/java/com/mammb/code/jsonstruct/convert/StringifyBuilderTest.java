@@ -16,6 +16,10 @@
 package com.mammb.code.jsonstruct.convert;
 
 import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -41,4 +45,109 @@ class StringifyBuilderTest {
             {"name":"2022-11-01","age":30,"tel":null,"note":"\\r\\n"}""", appendable.toString());
     }
 
+
+    @Test
+    void testBuffered() {
+        var writer = new StringWriter();
+        var sb = StringifyBuilder.ofBuffered(writer, Converts.of());
+        sb.append('{').appendStr("a").append(':').appendStr("x\n".repeat(5_000)).append(',');
+        sb.appendStr("b").append(':').appendNull().append('}');
+        assertTrue(writer.getBuffer().length() < 10_000);
+        sb.flush();
+        assertEquals("{\"a\":\"" + "x\\n".repeat(5_000) + "\",\"b\":null}", writer.toString());
+
+        var appended = new StringBuilder();
+        var calls = new int[1];
+        Appendable appendable = new Appendable() {
+            @Override public Appendable append(CharSequence csq) { calls[0]++; appended.append(csq); return this; }
+            @Override public Appendable append(CharSequence csq, int start, int end) { return append(csq.subSequence(start, end)); }
+            @Override public Appendable append(char c) { return append(String.valueOf(c)); }
+        };
+        sb = StringifyBuilder.ofBuffered(appendable, Converts.of());
+        for (int i = 0; i < 1_000; i++) {
+            sb.append(',').appendNum(i);
+        }
+        sb.flush();
+        assertEquals(1, calls[0]);
+        assertTrue(appended.toString().endsWith(",998,999"));
+
+        // written through without flush
+        writer = new StringWriter();
+        StringifyBuilder.of(writer, Converts.of())
+            .append('[').appendStr("x\n".repeat(5_000)).append(',').appendLong(-12)
+            .append(Fragment.of(",true")).append(']');
+        assertEquals("[\"" + "x\\n".repeat(5_000) + "\",-12,true]", writer.toString());
+    }
+
+
+    @Test
+    void testAppendPrimitives() {
+        long[] values = { 0, 9, 10, -1, -10, 99, 100, Integer.MAX_VALUE, Integer.MIN_VALUE,
+            999_999_999_999_999_999L, 1_000_000_000_000_000_000L, Long.MAX_VALUE, Long.MIN_VALUE };
+        for (long value : values) {
+            var writer = new StringWriter();
+            var sb = StringifyBuilder.of(writer, Converts.of());
+            var bytes = StringifyBuilder.of((OutputStream) null, Converts.of());
+            sb.appendLong(value).append(',').appendInt((int) value);
+            bytes.appendLong(value).append(',').appendInt((int) value);
+            sb.flush();
+            String expected = value + "," + (int) value;
+            assertEquals(expected, writer.toString());
+            assertEquals(expected, new String(bytes.toBytes(), StandardCharsets.UTF_8));
+        }
+
+        var appendable = new StringBuilder();
+        StringifyBuilder.of(appendable, Converts.of())
+            .appendDouble(1.5).append(',').appendFloat(0.1f).append(',')
+            .appendBoolean(true).append(',').appendBoolean(false).append(',')
+            .appendChar('a').append(',').appendChar('\n');
+        assertEquals("1.5,0.1,true,false,\"a\",\"\\n\"", appendable.toString());
+
+        var converts = Converts.of();
+        converts.addStringify(Integer.class, (Integer i) -> "0x" + Integer.toHexString(i));
+        appendable.setLength(0);
+        StringifyBuilder.of(appendable, converts).appendInt(255);
+        assertEquals("0xff", appendable.toString());
+
+        // the converter of Integer does not apply to short and byte
+        appendable.setLength(0);
+        StringifyBuilder.of(appendable, converts).appendShort((short) 255).append(',').appendByte((byte) -1);
+        assertEquals("255,-1", appendable.toString());
+
+        converts.addStringify(Short.class, (Short v) -> "s" + v);
+        converts.addStringify(Byte.class, (Byte v) -> "b" + v);
+        appendable.setLength(0);
+        StringifyBuilder.of(appendable, converts).appendShort((short) 255).append(',').appendByte((byte) -1);
+        assertEquals("s255,b-1", appendable.toString());
+    }
+
+
+    @Test
+    void testBytes() {
+        var sb = StringifyBuilder.of((OutputStream) null, Converts.of());
+        sb.append('{');
+        sb.append(Fragment.of("\"name\":")).appendStr("é\u3042\uD83D\uDE00\uD83D\"");
+        sb.append(',').appendStr("age").append(':').appendNum(30);
+        sb.append(',').appendStr("tel").append(':').appendNull();
+        sb.append('}');
+
+        assertEquals("""
+            {"name":"é\u3042\uD83D\uDE00?\\"","age":30,"tel":null}""",
+            new String(sb.toBytes(), StandardCharsets.UTF_8));
+    }
+
+
+    @Test
+    void testBytesToStream() {
+        var out = new ByteArrayOutputStream();
+        var sb = StringifyBuilder.of(out, Converts.of());
+        String str = "a\u3042\uD83D\uDE00".repeat(10_000);
+        sb.appendStr(str).append(Fragment.of("b".repeat(20_000)));
+        assertTrue(out.size() > 0);
+        sb.flush();
+
+        assertEquals('"' + str + '"' + "b".repeat(20_000), out.toString(StandardCharsets.UTF_8));
+        assertThrows(IllegalStateException.class, sb::toBytes);
+    }
+
 }
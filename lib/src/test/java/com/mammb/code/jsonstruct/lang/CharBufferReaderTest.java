@@ -63,4 +63,17 @@ class CharBufferReaderTest {
         assertEquals(' ', chars[4]);
     }
 
+
+    @Test
+    void testScanString() {
+        var sr = CharBufferReader.of(new StringReader("x" + "a".repeat(100) + "\"b"));
+        var ca = CharArray.of(4);
+        assertEquals('x', sr.read());
+        sr.stepBack();
+        assertEquals(101, sr.scanString(ca));
+        assertEquals(101, sr.getPosition());
+        assertEquals("x" + "a".repeat(100), ca.popString());
+        assertEquals('"', sr.read());
+        assertEquals('b', sr.read());
+    }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct.lang;
+
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.Arrays;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for {@link GatheringOutputStream}.
+ * @author Naotsugu Kobayashi
+ */
+class GatheringOutputStreamTest {
+
+    @Test
+    void testWrite() throws IOException {
+
+        var channel = new Channel();
+        byte[] bytes = new byte[3_000_000];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = (byte) i;
+
+        try (var out = GatheringOutputStream.of(channel)) {
+            out.write('a');
+            out.write(bytes, 0, bytes.length);
+            // the chain is written when full
+            assertTrue(channel.out.size() > 0);
+            assertTrue(channel.gathered > 1);
+            out.write('z');
+        }
+
+        byte[] written = channel.out.toByteArray();
+        assertEquals(bytes.length + 2, written.length);
+        assertEquals('a', written[0]);
+        assertArrayEquals(bytes, Arrays.copyOfRange(written, 1, bytes.length + 1));
+        assertEquals('z', written[written.length - 1]);
+    }
+
+
+    /**
+     * The channel that writes at most 100K bytes at a time.
+     */
+    private static class Channel implements GatheringByteChannel {
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int gathered;
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) {
+            gathered = Math.max(gathered, length);
+            long n = 0;
+            for (int i = offset; i < offset + length && n < 100_000; i++) {
+                n += write(srcs[i]);
+            }
+            return n;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs) {
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            int n = src.remaining();
+            while (src.hasRemaining()) out.write(src.get());
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct.lang;
+
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.io.StringReader;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for {@link ReadAheadReader}.
+ * @author Naotsugu Kobayashi
+ */
+class ReadAheadReaderTest {
+
+    @Test
+    void testRead() throws IOException {
+
+        try (var sr = ReadAheadReader.of(new StringReader("abc  \tdef"))) {
+            assertEquals('a', sr.read());
+            assertEquals('b', sr.read());
+            assertEquals('c', sr.read());
+            assertEquals(' ', sr.read());
+            assertEquals('d', sr.readNextChar());
+            sr.skip(1);
+            assertEquals('f', sr.readNextChar());
+            sr.stepBack();
+            assertEquals('f', sr.read());
+            assertEquals(9, sr.getPosition());
+            assertEquals(-1, sr.read());
+        }
+    }
+
+
+    @Test
+    void testReadAcrossBuffers() throws IOException {
+
+        var sb = new StringBuilder();
+        for (int i = 0; sb.length() < 300_000; i++) {
+            sb.append(i).append(',');
+        }
+        String str = sb.toString();
+
+        try (var sr = ReadAheadReader.of(new StringReader(str))) {
+            var ret = new StringBuilder();
+            for (int ch = sr.read(); ch != -1; ch = sr.read()) {
+                ret.append((char) ch);
+                if (ret.length() % 65_536 == 0) {
+                    // step back over the boundary of buffers
+                    sr.stepBack();
+                    assertEquals(ch, sr.read());
+                }
+            }
+            assertEquals(str, ret.toString());
+            assertEquals(str.length() + 1, sr.getPosition());
+        }
+    }
+
+
+    @Test
+    void testScanString() throws IOException {
+
+        String str = "a".repeat(100_000);
+        try (var sr = ReadAheadReader.of(new StringReader("x" + str + "\"b"))) {
+            var ca = CharArray.of(4);
+            assertEquals('x', sr.read());
+            sr.stepBack();
+            assertEquals(100_001, sr.scanString(ca));
+            assertEquals("x" + str, ca.popString());
+            assertEquals('"', sr.read());
+            assertEquals('b', sr.read());
+            assertEquals(-1, sr.read());
+        }
+    }
+
+}
@@ -61,4 +61,40 @@ class StringReaderTest {
         assertEquals(' ', chars[4]);
     }
 
+
+    @Test
+    void testRange() {
+        var sr = StringReader.of("abc def", 2, 5);
+        assertEquals(2, sr.getPosition());
+        assertEquals('c', sr.read());
+        assertEquals('d', sr.readNextChar());
+        assertEquals(5, sr.getPosition());
+        assertEquals(-1, sr.read());
+    }
+
+
+    @Test
+    void testStepBackAtEnd() {
+        var sr = StringReader.of("ab");
+        sr.skip(1);
+        assertEquals('b', sr.read());
+        assertEquals(-1, sr.read());
+        sr.stepBack();
+        assertEquals(-1, sr.read());
+    }
+
+
+    @Test
+    void testScanString() {
+        var sr = StringReader.of("abc\\d\"e");
+        var ca = CharArray.of(4);
+        assertEquals(3, sr.scanString(ca));
+        assertEquals('\\', sr.read());
+        assertEquals(1, sr.scanString(ca));
+        assertEquals("abcd", ca.popString());
+        assertEquals('"', sr.read());
+        assertEquals(1, sr.scanString(ca));
+        assertEquals(0, sr.scanString(ca));
+        assertEquals(-1, sr.read());
+    }
 }
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct.lang;
+
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for {@link Utf8Reader}.
+ * @author Naotsugu Kobayashi
+ */
+class Utf8ReaderTest {
+
+    @Test
+    void testRead() {
+
+        var sr = Utf8Reader.of(bytes("abc  \tdef"));
+        assertEquals('a', sr.read());
+        assertEquals('b', sr.read());
+        assertEquals('c', sr.read());
+        assertEquals(' ', sr.read());
+        assertEquals('d', sr.readNextChar());
+        sr.skip(1);
+        assertEquals('f', sr.readNextChar());
+        sr.stepBack();
+        assertEquals('f', sr.read());
+        assertEquals(9, sr.getPosition());
+        assertEquals(-1, sr.read());
+    }
+
+
+    @Test
+    void testLength() {
+        var sr = Utf8Reader.of(bytes("abc def"));
+        assertEquals(3, sr.length(c -> c > ' '));
+        sr.read();
+        assertEquals(2, sr.length(c -> c > ' '));
+    }
+
+
+    @Test
+    void testReadChars() {
+        var sr = Utf8Reader.of(bytes("abc def"));
+        char[] chars = new char[5];
+        sr.read(chars, 1, 4);
+        assertEquals('a', chars[1]);
+        assertEquals('b', chars[2]);
+        assertEquals('c', chars[3]);
+        assertEquals(' ', chars[4]);
+    }
+
+
+    @Test
+    void testMultibyte() {
+        String str = "aé漢😀z";
+        var sr = Utf8Reader.of(bytes(str));
+        assertEquals(5, sr.length(c -> c != 'z'));
+        assertEquals('a', sr.read());
+        char[] chars = new char[4];
+        assertEquals(4, sr.read(chars, 0, 4));
+        assertEquals("é漢😀", new String(chars));
+        assertEquals('z', sr.read());
+        assertEquals(-1, sr.read());
+    }
+
+
+    @Test
+    void testStream() {
+        String str = "[\"aé漢😀\",\"" + "x".repeat(10000) + "\"]";
+        var sr = Utf8Reader.of(slow(bytes(str)));
+        var sb = new StringBuilder();
+        for (int ch = sr.read(); ch != -1; ch = sr.read()) {
+            sb.append((char) ch);
+            if (ch == ',') {
+                sr.read();
+                sb.append('"');
+                int len = sr.length(c -> c != '"');
+                assertEquals(10000, len);
+                char[] chars = new char[len];
+                assertEquals(len, sr.read(chars, 0, len));
+                sb.append(chars);
+            }
+        }
+        assertEquals(str, sb.toString());
+    }
+
+
+    @Test
+    void testByteBuffer() {
+        byte[] bytes = bytes("\uFEFF{\"a\":\"é\"}");
+        var direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        var heap = ByteBuffer.wrap(bytes);
+        for (var buffer : new ByteBuffer[] { direct, heap }) {
+            var sr = Utf8Reader.of(buffer);
+            char[] chars = new char[9];
+            assertEquals(9, sr.read(chars, 0, 9));
+            assertEquals("{\"a\":\"é\"}", new String(chars));
+            assertEquals(-1, sr.read());
+            assertEquals(0, buffer.position());
+        }
+    }
+
+
+    @Test
+    void testDirectBuffer() {
+        String str = "abcdefghijé漢😀klmnopqrstuvwxyz";
+        byte[] bytes = bytes("[\"" + str + "\"]");
+        var direct = ByteBuffer.allocateDirect(bytes.length + 4);
+        direct.put(bytes("xx")).put(bytes).put(bytes("yy")).flip();
+        direct.position(2).limit(bytes.length + 2);
+
+        var sr = Utf8Reader.of(direct);
+        assertEquals(str.length() + 4, sr.length(c -> true));
+        assertEquals('[', sr.read());
+        assertEquals('"', sr.read());
+        var ca = CharArray.of(4);
+        assertEquals(str.length(), sr.scanString(ca));
+        assertEquals(str, ca.popString());
+        assertEquals('"', sr.read());
+        assertEquals(']', sr.read());
+        assertEquals(-1, sr.read());
+        assertEquals(2, direct.position());
+
+        direct = ByteBuffer.allocateDirect(3).put(new byte[] { 'a', (byte) 0xE6, (byte) 0xBC }).flip();
+        sr = Utf8Reader.of(direct);
+        assertEquals('a', sr.read());
+        assertEquals('\uFFFD', sr.read());
+        assertEquals(-1, sr.read());
+    }
+
+
+    @Test
+    void testMalformed() {
+        var sr = Utf8Reader.of(new byte[] { 'a', (byte) 0xE2, 'b', (byte) 0xFF, (byte) 0xC3 });
+        assertEquals(5, sr.length(c -> true));
+        assertEquals('a', sr.read());
+        assertEquals('\uFFFD', sr.read());
+        assertEquals('b', sr.read());
+        assertEquals('\uFFFD', sr.read());
+        assertEquals('\uFFFD', sr.read());
+        assertEquals(-1, sr.read());
+    }
+
+
+    private static byte[] bytes(String str) {
+        return str.getBytes(StandardCharsets.UTF_8);
+    }
+
+
+    @Test
+    void testTrickle() {
+        String str = "é日😀aé漢😀z";
+        var sr = Utf8Reader.of(trickle(bytes(str)));
+        var sb = new StringBuilder();
+        for (int ch = sr.read(); ch != -1; ch = sr.read()) {
+            sb.append((char) ch);
+        }
+        assertEquals(str, sb.toString());
+
+        sr = Utf8Reader.of(trickle(bytes(str)));
+        char[] chars = new char[str.length()];
+        int n = 0;
+        for (int r = sr.read(chars, n, chars.length - n); r > 0; r = sr.read(chars, n, chars.length - n)) {
+            n += r;
+        }
+        assertEquals(str, new String(chars, 0, n));
+    }
+
+
+    private static InputStream trickle(byte[] bytes) {
+        return new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+    }
+
+
+    private static InputStream slow(byte[] bytes) {
+        return new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 3));
+            }
+        };
+    }
+
+
+    @Test
+    void testScanString() {
+        String str = "abcdefghijé漢😀klmnopqrstuvwxyz";
+        var sr = Utf8Reader.of(bytes(str + "\\n" + str + "\n\""));
+        var ca = CharArray.of(4);
+        assertEquals(str.length(), sr.scanString(ca));
+        assertEquals(str, ca.popString());
+        assertEquals('\\', sr.read());
+        assertEquals('n', sr.read());
+        assertEquals(str.length(), sr.scanString(ca));
+        assertEquals(str, ca.popString());
+        assertEquals(0, sr.scanString(ca));
+        assertEquals('\n', sr.read());
+        assertEquals('"', sr.read());
+        assertEquals(-1, sr.read());
+
+        sr = Utf8Reader.of(slow(bytes(str + "\"")));
+        assertEquals(str.length(), sr.scanString(ca));
+        assertEquals(str, ca.popString());
+        assertEquals(str.length(), sr.getPosition());
+    }
+}
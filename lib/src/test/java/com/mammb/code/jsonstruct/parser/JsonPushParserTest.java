@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for {@link JsonPushParser}.
+ *
+ * @author Naotsugu Kobayashi
+ */
+class JsonPushParserTest {
+
+    @Test
+    void testSplitAnywhere() {
+        String json = """
+            \uFEFF{"a": "x\\"\\u3042\\n", "é😀": [1, -2.5e+3, true, false, null, {}], "b": {"c": []}}
+            "root" 123
+            """;
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        List<String> expected = values(PullParser.of(json.substring(1)));
+        assertEquals(3, expected.size());
+
+        for (int i = 0; i <= bytes.length; i++) {
+            for (int j = i; j <= bytes.length; j++) {
+                var actual = new ArrayList<String>();
+                var parser = JsonPushParser.of(p -> actual.addAll(values(p)));
+                parser.feed(ByteBuffer.wrap(bytes, 0, i));
+                parser.feed(ByteBuffer.allocateDirect(j - i).put(bytes, i, j - i).flip());
+                parser.feed(ByteBuffer.wrap(bytes, j, bytes.length - j).slice());
+                parser.end();
+                assertEquals(expected, actual);
+            }
+        }
+    }
+
+
+    @Test
+    void testMalformed() {
+        assertThrows(JsonParseException.class, () -> feed("{\"a\" 1}"));
+        assertThrows(JsonParseException.class, () -> feed("[1, 2}"));
+        assertThrows(JsonParseException.class, () -> feed("[01]"));
+        assertThrows(JsonParseException.class, () -> feed("[tru]"));
+        assertThrows(JsonParseException.class, () -> feed("[\"\\x\"]"));
+        assertThrows(JsonParseException.class, () -> feed("[1, 2"));
+        assertThrows(JsonParseException.class, () -> feed("\"abc"));
+    }
+
+
+    @Test
+    void testElements() {
+        var sb = new StringBuilder("\uFEFF[");
+        for (int i = 0; i < 100_000; i++) {
+            if (i > 0) sb.append(",\n");
+            sb.append((i % 2 == 0) ? "{\"a\": [%d, \"]\"]}".formatted(i) : String.valueOf(i));
+        }
+        sb.append("] [] [\"x\"]");
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        var actual = new ArrayList<String>();
+        var parser = JsonPushParser.ofElements(p -> {
+            // the replay holds only the tokens of the element
+            List<String> values = values(p);
+            assertEquals(1, values.size());
+            actual.add(values.get(0));
+        });
+        int half = bytes.length / 2;
+        for (int i = 0; i < half; i += 4096) {
+            parser.feed(bytes, i, Math.min(4096, half - i));
+        }
+        assertTrue(actual.size() > 40_000);
+        parser.feed(bytes, half, bytes.length - half);
+        parser.end();
+
+        assertEquals(100_001, actual.size());
+        assertEquals("{a=[0, ]]}", actual.get(0));
+        assertEquals("99999", actual.get(99_999));
+        assertEquals("x", actual.get(100_000));
+    }
+
+
+    @Test
+    void testElementsMalformed() {
+        assertThrows(JsonParseException.class, () -> feedElements("{}"));
+        assertThrows(JsonParseException.class, () -> feedElements("1"));
+        assertThrows(JsonParseException.class, () -> feedElements("[1 2]"));
+        assertThrows(JsonParseException.class, () -> feedElements("[1,]"));
+        assertThrows(JsonParseException.class, () -> feedElements("[,1]"));
+        assertThrows(JsonParseException.class, () -> feedElements("[1, }"));
+        assertThrows(JsonParseException.class, () -> feedElements("[{]]"));
+        assertThrows(JsonParseException.class, () -> feedElements("[1, 2"));
+        assertThrows(JsonParseException.class, () -> feedElements("[1, {"));
+    }
+
+
+    private static void feedElements(String json) {
+        var parser = JsonPushParser.ofElements(p -> values(p));
+        parser.feed(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+        parser.end();
+    }
+
+
+    private static void feed(String json) {
+        var parser = JsonPushParser.of(p -> values(p));
+        parser.feed(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+        parser.end();
+    }
+
+
+    private static List<String> values(PullParser parser) {
+        var list = new ArrayList<String>();
+        while (parser.hasNext()) {
+            parser.next();
+            list.add(parser.getValue().toString());
+        }
+        return list;
+    }
+
+}
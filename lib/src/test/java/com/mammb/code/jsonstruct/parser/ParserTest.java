@@ -16,6 +16,10 @@
 package com.mammb.code.jsonstruct.parser;
 
 import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -44,4 +48,65 @@ class ParserTest {
 
     }
 
+
+    @Test
+    void testParseLazy() {
+        var p = Parser.ofLazy("""
+        {
+          "key1" : {"a": [1, {"b": "x]}\\\\", "q": "\\"}"}], "c": "v"},
+          "key2" : [true, [null]],
+          "key3" : {"broken": :}
+        }
+        """);
+
+        var obj = (JsonObject) p.parse();
+        assertTrue(obj.get("key1") instanceof JsonObject.LazyJsonObject);
+        assertEquals("x]}\\", obj.at("/key1/a/1/b").toString());
+        assertEquals("\"}", obj.at("/key1/a/1/q").toString());
+        assertEquals("v", obj.at("/key1/c").toString());
+
+        var array = (JsonArray) obj.get("key2");
+        assertEquals(2, array.size());
+        assertEquals(JsonValue.TRUE, array.get(0));
+        assertEquals(JsonValue.NULL, array.at("/1/0"));
+
+        // syntax of the nested structure is checked on the access
+        assertThrows(JsonParseException.class, () -> obj.at("/key3/broken"));
+    }
+
+
+    @Test
+    void testLazyEquals() {
+        String json = """
+            {"a": {"b": [true, false, {"c": null}]}, "d": [true, []]}""";
+        var lazy = (JsonObject) Parser.ofLazy(json).parse();
+        var eager = (JsonObject) Parser.of(json).parse();
+        assertEquals(eager.get("a"), lazy.get("a"));
+        assertEquals(lazy.get("a"), eager.get("a"));
+        assertEquals(eager.get("d"), lazy.get("d"));
+        assertEquals(lazy.get("d"), eager.get("d"));
+        assertEquals(eager.get("a").hashCode(), lazy.get("a").hashCode());
+        assertEquals(eager.get("d").hashCode(), lazy.get("d").hashCode());
+    }
+
+
+    @Test
+    void testLazyShared() throws Exception {
+        var obj = (JsonObject) Parser.ofLazy("""
+            {"a": {"b": [1, 2, 3], "c": "v"}}""").parse();
+        var shared = obj.get("a");
+        var pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(pool.submit(() -> ((JsonObject) shared).at("/b/2").toString()));
+            }
+            for (Future<String> result : results) {
+                assertEquals("3", result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
 }
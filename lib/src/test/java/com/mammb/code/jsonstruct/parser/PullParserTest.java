@@ -0,0 +1,283 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct.parser;
+
+import com.mammb.code.jsonstruct.lang.CharBufferReader;
+import org.junit.jupiter.api.Test;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static com.mammb.code.jsonstruct.parser.PullParser.Event.*;
+
+/**
+ * Test for {@link PullParser}.
+ *
+ * @author Naotsugu Kobayashi
+ */
+class PullParserTest {
+
+    @Test
+    void testNext() {
+        var p = PullParser.of("""
+            { "name": "John", "age": 30, "rate": 1.5,
+              "tags": [ "a", true, false, null ],
+              "address": { "zip": "12345" } }
+            """);
+
+        assertEquals(START_OBJECT, p.next());
+        assertEquals(1, p.depth());
+
+        assertEquals(KEY_NAME, p.next());
+        assertEquals("name", p.getName());
+        assertEquals(VALUE_STRING, p.next());
+        assertEquals("John", p.getString());
+
+        assertEquals(KEY_NAME, p.next());
+        assertEquals("age", p.getName());
+        assertEquals(VALUE_NUMBER, p.next());
+        assertEquals(30, p.getInt());
+        assertEquals(30L, p.getLong());
+
+        assertEquals(KEY_NAME, p.next());
+        assertEquals(VALUE_NUMBER, p.next());
+        assertEquals(new BigDecimal("1.5"), p.getBigDecimal());
+
+        assertEquals(KEY_NAME, p.next());
+        assertEquals("tags", p.getName());
+        assertEquals(START_ARRAY, p.next());
+        assertEquals(VALUE_STRING, p.next());
+        assertEquals(VALUE_TRUE, p.next());
+        assertTrue(p.getBoolean());
+        assertEquals(VALUE_FALSE, p.next());
+        assertFalse(p.getBoolean());
+        assertEquals(VALUE_NULL, p.next());
+        assertEquals(END_ARRAY, p.next());
+
+        assertEquals(KEY_NAME, p.next());
+        assertEquals(START_OBJECT, p.next());
+        assertEquals(2, p.depth());
+        assertEquals(KEY_NAME, p.next());
+        assertEquals("zip", p.getName());
+        assertEquals(VALUE_STRING, p.next());
+        assertEquals(END_OBJECT, p.next());
+
+        assertEquals(END_OBJECT, p.next());
+        assertEquals(0, p.depth());
+        assertFalse(p.hasNext());
+        assertThrows(NoSuchElementException.class, p::next);
+    }
+
+
+    @Test
+    void testSkipChildren() {
+        var p = PullParser.of("""
+            { "skip": { "a": [1, 2, {"b": 3}] }, "take": "x" }
+            """);
+        assertEquals(START_OBJECT, p.next());
+        assertEquals(KEY_NAME, p.next());
+        assertEquals(START_OBJECT, p.next());
+        p.skipChildren();
+        assertEquals(END_OBJECT, p.currentEvent());
+        assertEquals(KEY_NAME, p.next());
+        assertEquals("take", p.getName());
+        assertEquals(VALUE_STRING, p.next());
+        assertEquals("x", p.getString());
+        assertEquals(END_OBJECT, p.next());
+    }
+
+
+    @Test
+    void testSkipValue() {
+        var p = PullParser.of("""
+            { "a": { "x": ["]", "\\"}"] }, "b": "s\\"", "c": -1.5e+3, "d": true, "e": [], "take": 1 }
+            """);
+        assertEquals(START_OBJECT, p.next());
+        assertEquals(KEY_NAME, p.next());
+        p.skipValue();
+        assertEquals(END_OBJECT, p.currentEvent());
+        assertEquals(KEY_NAME, p.next());
+        p.skipValue();
+        assertEquals(VALUE_STRING, p.currentEvent());
+        assertThrows(IllegalStateException.class, p::getString);
+        assertThrows(IllegalStateException.class, p::getValue);
+        assertEquals(KEY_NAME, p.next());
+        p.skipValue();
+        assertEquals(VALUE_NUMBER, p.currentEvent());
+        assertThrows(IllegalStateException.class, p::getInt);
+        assertThrows(IllegalStateException.class, p::getBigDecimal);
+        assertEquals(KEY_NAME, p.next());
+        p.skipValue();
+        assertEquals(VALUE_TRUE, p.currentEvent());
+        assertEquals(KEY_NAME, p.next());
+        p.skipValue();
+        assertEquals(END_ARRAY, p.currentEvent());
+        assertEquals(KEY_NAME, p.next());
+        assertEquals("take", p.getName());
+        assertEquals(VALUE_NUMBER, p.next());
+        assertEquals(1, p.getInt());
+        assertEquals(END_OBJECT, p.next());
+        assertFalse(p.hasNext());
+
+        // deeper than the bracket bits of a long
+        String deep = "[".repeat(100) + "{}" + "]".repeat(100);
+        p = PullParser.of("{\"a\":" + deep + ", \"take\": 2}");
+        assertEquals(START_OBJECT, p.next());
+        assertEquals(KEY_NAME, p.next());
+        p.skipValue();
+        assertEquals(END_ARRAY, p.currentEvent());
+        assertEquals(KEY_NAME, p.next());
+        assertEquals(VALUE_NUMBER, p.next());
+        assertEquals(2, p.getInt());
+
+        for (String malformed : new String[] {
+                "{\"x\":[1,2}}", "{\"x\":{\"y\":1]}", "{\"x\":1-+e}", "{\"x\":-}", "{\"x\":1.}",
+                "{\"x\":1e}", "{\"x\":[1.e3]}", "{\"x\":[-a]}", "{\"x\":[tru]}", "{\"x\":[1, x]}",
+                "{\"x\":" + "[".repeat(100) + "}" + "]".repeat(99) + "}" }) {
+            assertThrows(JsonParseException.class, () -> {
+                var m = PullParser.of(malformed);
+                m.next();
+                m.next();
+                m.skipValue();
+                while (m.hasNext()) m.next();
+            }, malformed);
+            assertThrows(JsonParseException.class, () -> {
+                var m = PullParser.of(malformed);
+                m.next();
+                m.skipChildren();
+            }, malformed);
+        }
+    }
+
+
+    @Test
+    void testGetValue() {
+        var p = PullParser.of("""
+            [ {"a": [1, 2]}, "b" ]
+            """);
+        assertEquals(START_ARRAY, p.next());
+        assertEquals(START_OBJECT, p.next());
+        var obj = (JsonObject) p.getValue();
+        assertEquals("2", obj.at("/a/1").toString());
+        assertEquals(END_OBJECT, p.currentEvent());
+        assertEquals(VALUE_STRING, p.next());
+        assertTrue(p.getValue() instanceof JsonString);
+        assertEquals(END_ARRAY, p.next());
+        assertFalse(p.hasNext());
+    }
+
+
+    @Test
+    void testMultipleRoots() {
+        var p = PullParser.of("""
+            {"a":1}
+            {"a":2}
+            """);
+        assertTrue(p.hasNext());
+        assertEquals(START_OBJECT, p.next());
+        p.skipChildren();
+        assertTrue(p.hasNext());
+        assertEquals(START_OBJECT, p.next());
+        assertEquals(KEY_NAME, p.next());
+        assertEquals(VALUE_NUMBER, p.next());
+        assertEquals(2, p.getInt());
+        assertEquals(END_OBJECT, p.next());
+        assertFalse(p.hasNext());
+    }
+
+
+    @Test
+    void testScalarRoot() {
+        var p = PullParser.of(CharBufferReader.of(new StringReader("12")));
+        assertEquals(VALUE_NUMBER, p.next());
+        assertEquals(12, p.getInt());
+        assertFalse(p.hasNext());
+
+        p = PullParser.of(CharBufferReader.of(new StringReader(" -1.5 ")));
+        assertEquals(VALUE_NUMBER, p.next());
+        assertEquals(new BigDecimal("-1.5"), p.getBigDecimal());
+        assertFalse(p.hasNext());
+
+        p = PullParser.of(CharBufferReader.of(new StringReader("\"abc\"")));
+        assertEquals(VALUE_STRING, p.next());
+        assertEquals("abc", p.getString());
+        assertFalse(p.hasNext());
+
+        p = PullParser.of(CharBufferReader.of(new StringReader("true")));
+        assertEquals(VALUE_TRUE, p.next());
+        assertFalse(p.hasNext());
+
+        p = PullParser.of(CharBufferReader.of(new StringReader("1 2")));
+        assertEquals(VALUE_NUMBER, p.next());
+        assertEquals(1, p.getInt());
+        assertEquals(VALUE_NUMBER, p.next());
+        assertEquals(2, p.getInt());
+        assertFalse(p.hasNext());
+
+        p = PullParser.of("12");
+        assertEquals(VALUE_NUMBER, p.next());
+        assertEquals(12, p.getInt());
+        assertFalse(p.hasNext());
+
+        p = PullParser.of("\"abc\"");
+        assertEquals(VALUE_STRING, p.next());
+        assertEquals("abc", p.getString());
+        assertFalse(p.hasNext());
+    }
+
+
+    @Test
+    void testKeyCache() {
+        var p1 = PullParser.of("{\"sharedName\":1, \"sharedName\":2}");
+        var p2 = PullParser.of(CharBufferReader.of(new StringReader("{\"a\":[], \"sharedName\":3}")));
+        p1.next();
+        p1.next();
+        String name1 = p1.getName();
+        p1.next();
+        p1.next();
+        assertSame(name1, p1.getName());
+        p2.next();
+        p2.next();
+        p2.next();
+        p2.next();
+        p2.next();
+        assertEquals("sharedName", p2.getName());
+        assertSame(name1, p2.getName());
+    }
+
+
+    @Test
+    void testMalformed() {
+        assertThrows(JsonParseException.class, () -> {
+            var p = PullParser.of("{\"a\" 1}");
+            while (p.hasNext()) p.next();
+        });
+        assertThrows(JsonParseException.class, () -> {
+            var p = PullParser.of("[1, 2}");
+            while (p.hasNext()) p.next();
+        });
+        assertThrows(JsonParseException.class, () -> {
+            var p = PullParser.of("{\"a\":1,}");
+            while (p.hasNext()) p.next();
+        });
+        assertThrows(JsonParseException.class, () -> {
+            var p = PullParser.of("[1, 2");
+            while (p.hasNext()) p.next();
+        });
+    }
+
+}
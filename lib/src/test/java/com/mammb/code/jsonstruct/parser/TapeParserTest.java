@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.jsonstruct.parser;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for {@link TapeParser}.
+ *
+ * @author Naotsugu Kobayashi
+ */
+class TapeParserTest {
+
+    @Test
+    void testParse() {
+        var obj = (JsonObject) TapeParser.of("""
+        {
+          "key1" : "val1",
+          "key2" : 100,
+          "key3" : [true, false, null, -1.5e3, {}, []],
+          "key4" : {"a": "\\"x\\\\", "b": "é漢\\u0041"}
+        }
+        """).parse();
+
+        assertEquals(4, obj.size());
+        assertTrue(obj.get("key1") instanceof JsonString);
+        assertEquals("val1", obj.get("key1").toString());
+
+        assertTrue(obj.get("key2") instanceof JsonNumber);
+        assertEquals(100, ((NumberSource) obj.get("key2")).getInt());
+
+        var array = (JsonArray) obj.get("key3");
+        assertEquals(6, array.size());
+        assertEquals(JsonValue.TRUE, array.get(0));
+        assertEquals(JsonValue.FALSE, array.get(1));
+        assertEquals(JsonValue.NULL, array.get(2));
+        assertEquals(-1500, ((NumberSource) array.get(3)).getInt());
+        assertEquals(0, ((JsonObject) array.get(4)).size());
+        assertEquals(0, ((JsonArray) array.get(5)).size());
+
+        assertEquals("\"x\\", obj.at("/key4/a").toString());
+        assertEquals("é漢A", obj.at("/key4/b").toString());
+    }
+
+
+    @Test
+    void testSameAsParser() {
+        var sb = new StringBuilder("[");
+        for (int i = 0; i < 200; i++) {
+            if (i > 0) sb.append(",");
+            // escapes and structural characters in strings across the block boundaries
+            sb.append("{\"k").append(i).append("\":\"")
+              .append("\\\\".repeat(i % 5)).append("\\\"".repeat(i % 3)).append("{[,:]}".repeat(i % 4))
+              .append("\",\"n\":[").append(i).append(".").append(i).append(",").append(-i).append("]}");
+        }
+        String json = sb.append("]").toString();
+        assertEquals(Parser.of(json).parse().toString(), TapeParser.of(json).parse().toString());
+    }
+
+
+    @Test
+    void testShared() throws Exception {
+        var obj = (JsonObject) TapeParser.of("""
+            {"a": {"b": [1, 2, 3], "c": "v"}}""").parse();
+        var pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(pool.submit(() -> obj.at("/a/b/2").toString() + obj.at("/a/c")));
+            }
+            for (Future<String> result : results) {
+                assertEquals("3v", result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+
+    @Test
+    void testEmpty() {
+        assertNull(TapeParser.of("  ").parse());
+    }
+
+
+    @Test
+    void testMalformed() {
+        for (String json : new String[] {
+                "{", "[1,]", "{\"a\" 1}", "{\"a\":}", "[tru]", "[01]", "[1.]", "{\"a\":1,}",
+                "[\"abc]", "[1]]", "[1] x", "{\"a\":1]", "[\"a\tb\"]", "\"a\"", "[1 2]" }) {
+            assertThrows(JsonParseException.class, () -> TapeParser.of(json).parse(), json);
+        }
+    }
+
+}
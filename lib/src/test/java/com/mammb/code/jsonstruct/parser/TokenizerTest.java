@@ -117,4 +117,64 @@ class TokenizerTest {
 
         assertEquals(EOF, tokenizer.next().type);
     }
+
+
+    @Test
+    void keyCache() {
+        var t1 = Tokenizer.of(StringReader.of("{\"cachedKey\" : \"cachedKey\"}"));
+        var t2 = Tokenizer.of(StringReader.of("{\"cachedKey\":1}"));
+
+        t1.next();
+        var key1 = t1.nextKey();
+        t1.next();
+        var value = t1.next();
+
+        t2.next();
+        var key2 = t2.nextKey();
+
+        assertEquals("cachedKey", key1.toString());
+        assertSame(key1, key2);
+        assertSame(key1.toString(), key2.toString());
+        assertEquals("cachedKey", value.toString());
+        assertNotSame(key1, value);
+        assertEquals(COLON, t2.next().type);
+
+        // a string value is not looked up in the cache
+        var t3 = Tokenizer.of(StringReader.of("\"cachedKey\""));
+        assertNotSame(key1, t3.next());
+        assertEquals(EOF, t3.next().type);
+    }
+
+
+
+    @Test
+    void number() {
+        assertEquals(0.1, num("0.1").getDouble());
+        assertEquals(-1.7976931348623157E308, num("-1.7976931348623157E308").getDouble());
+        assertEquals(4.9E-324, num("4.9E-324").getDouble());
+        assertEquals(2.2250738585072014E-308, num("22.250738585072014e-309").getDouble());
+        assertEquals(1.0E23, num("1e23").getDouble());
+        assertEquals(1.2345678901234567E-300, num("1.2345678901234567E-300").getDouble());
+        assertEquals(0.30000001192092896, num("0.30000001192092896").getDouble());
+        assertEquals(123456789012345678901234567890.0, num("123456789012345678901234567890").getDouble());
+        assertEquals(Double.POSITIVE_INFINITY, num("1e400").getDouble());
+        assertEquals(-0.0, num("-0.0").getDouble());
+        assertEquals(3.4028235E38f, num("3.4028235E38").getFloat());
+        assertEquals(0.1f, num("0.1").getFloat());
+
+        assertEquals(new java.math.BigDecimal("1.50"), num("1.50").getBigDecimal());
+        assertEquals(new java.math.BigDecimal("-2.5e-3"), num("-2.5e-3").getBigDecimal());
+        assertEquals(new java.math.BigDecimal("1234567890.1234567890123"), num("1234567890.1234567890123").getBigDecimal());
+
+        assertEquals(1, num("1.9").getInt());
+        assertEquals(-12, num("-1.25e1").getLong());
+        assertEquals(1200, num("12e2").getLong());
+        assertEquals(0, num("1e-30").getLong());
+    }
+
+
+    private static Token.Num num(String str) {
+        return (Token.Num) Tokenizer.of(StringReader.of(str)).next();
+    }
+
 }